@@ -557,8 +557,10 @@ public class TlvBufferUtils {
          */
         public List<byte[]> toList() {
             List<byte[]> list = new ArrayList<>();
-            for (TlvElement tlv : this) {
-                list.add(Arrays.copyOfRange(tlv.mRefArray, tlv.offset, tlv.offset + tlv.length));
+            TlvCursor cursor = new TlvCursor(mTypeSize, mLengthSize).setByteOrder(mByteOrder);
+            cursor.reset(mArray, 0, mArrayLength);
+            while (cursor.next()) {
+                list.add(cursor.getRawData());
             }
 
             return list;
@@ -614,6 +616,177 @@ public class TlvBufferUtils {
         }
     }
 
+    /**
+     * Utility class to step through a TLV formatted byte-array without allocating. Unlike
+     * {@link TlvIterable} there is no {@link TlvElement} per entry: {@link #next()} moves the
+     * cursor to the next entry whose Type, Length and Value offset are then read from the
+     * cursor fields. The Value stays in the parsed array and is only copied by
+     * {@link #getRawData()}. A cursor may be re-used for another array by calling
+     * {@link #reset(byte[])}.
+     */
+    public static class TlvCursor {
+        /**
+         * The Type (T) field of the current TLV element. Undefined for LV formatted
+         * byte-arrays.
+         */
+        public int type;
+
+        /**
+         * The Length (L) field of the current TLV element.
+         */
+        public int length;
+
+        /**
+         * The offset of the Value (V) field of the current TLV element in the parsed array.
+         */
+        public int offset;
+
+        private final int mTypeSize;
+        private final int mLengthSize;
+        private ByteOrder mByteOrder = ByteOrder.BIG_ENDIAN;
+        private byte[] mArray;
+        private int mNextOffset;
+        private int mEnd;
+
+        /**
+         * Constructs a TlvCursor object - specifying the format of the TLV (the sizes of the
+         * Type and Length fields).
+         *
+         * @param typeSize Number of bytes used for the Type (T) field. Valid
+         *            values are 0 (i.e. indicating the format is LV rather than
+         *            TLV), 1, and 2 bytes.
+         * @param lengthSize Number of bytes used for the Length (L) field.
+         *            Values values are 1 or 2 bytes.
+         */
+        public TlvCursor(int typeSize, int lengthSize) {
+            if (typeSize < 0 || typeSize > 2 || lengthSize <= 0 || lengthSize > 2) {
+                throw new IllegalArgumentException(
+                        "Invalid sizes - typeSize=" + typeSize + ", lengthSize=" + lengthSize);
+            }
+            mTypeSize = typeSize;
+            mLengthSize = lengthSize;
+        }
+
+        /**
+         * Configure the TLV cursor to use little-endian byte ordering.
+         */
+        public TlvCursor setByteOrder(ByteOrder byteOrder) {
+            mByteOrder = byteOrder;
+            return this;
+        }
+
+        /**
+         * Positions the cursor before the first element of the specified array.
+         *
+         * @param array The TLV formatted byte-array to parse.
+         */
+        public TlvCursor reset(@Nullable byte[] array) {
+            return reset(array, 0, (array == null) ? 0 : array.length);
+        }
+
+        /**
+         * Positions the cursor before the first element of a range of the specified array.
+         *
+         * @param array The byte-array containing the TLV formatted range to parse.
+         * @param offset The offset of the range in the array.
+         * @param length The length of the range.
+         */
+        public TlvCursor reset(@Nullable byte[] array, int offset, int length) {
+            mArray = array;
+            mNextOffset = offset;
+            mEnd = offset + length;
+            this.type = 0;
+            this.length = 0;
+            this.offset = offset;
+            return this;
+        }
+
+        /**
+         * Moves the cursor to the next element.
+         *
+         * @return true if the cursor moved to a new element, false if the end of the array was
+         *         reached.
+         * @throws BufferOverflowException if the element does not fit in the array.
+         */
+        public boolean next() {
+            if (mNextOffset >= mEnd) {
+                return false;
+            }
+            if (mNextOffset + mTypeSize + mLengthSize > mEnd) {
+                throw new BufferOverflowException();
+            }
+
+            type = 0;
+            if (mTypeSize == 1) {
+                type = mArray[mNextOffset];
+            } else if (mTypeSize == 2) {
+                type = peekShort(mArray, mNextOffset, mByteOrder);
+            }
+            mNextOffset += mTypeSize;
+
+            length = 0;
+            if (mLengthSize == 1) {
+                length = mArray[mNextOffset];
+            } else if (mLengthSize == 2) {
+                length = peekShort(mArray, mNextOffset, mByteOrder);
+            }
+            mNextOffset += mLengthSize;
+
+            offset = mNextOffset;
+            if (length < 0 || offset + length > mEnd) {
+                throw new BufferOverflowException();
+            }
+            mNextOffset += length;
+            return true;
+        }
+
+        /**
+         * Return a copy of the Value (V) field of the current element.
+         */
+        public byte[] getRawData() {
+            return Arrays.copyOfRange(mArray, offset, offset + length);
+        }
+
+        /**
+         * Return the Value of the current element as a byte. Note: an attempt to call this
+         * function on an element whose {@link TlvCursor#length} is != 1 will result in an
+         * exception.
+         */
+        public byte getByte() {
+            if (length != 1) {
+                throw new IllegalArgumentException(
+                        "Accesing a byte from a TLV element of length " + length);
+            }
+            return mArray[offset];
+        }
+
+        /**
+         * Return the Value of the current element as a short. Note: an attempt to call this
+         * function on an element whose {@link TlvCursor#length} is != 2 will result in an
+         * exception.
+         */
+        public short getShort() {
+            if (length != 2) {
+                throw new IllegalArgumentException(
+                        "Accesing a short from a TLV element of length " + length);
+            }
+            return peekShort(mArray, offset, mByteOrder);
+        }
+
+        /**
+         * Return the Value of the current element as an integer. Note: an attempt to call this
+         * function on an element whose {@link TlvCursor#length} is != 4 will result in an
+         * exception.
+         */
+        public int getInt() {
+            if (length != 4) {
+                throw new IllegalArgumentException(
+                        "Accesing an int from a TLV element of length " + length);
+            }
+            return peekInt(mArray, offset, mByteOrder);
+        }
+    }
+
     /**
      * Validates that a (T)LV array is constructed correctly. I.e. that its specified Length
      * fields correctly fill the specified length (and do not overshoot). Uses big-endian
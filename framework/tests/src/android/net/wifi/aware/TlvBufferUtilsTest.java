@@ -25,6 +25,7 @@ import org.junit.Test;
 import org.junit.rules.ErrorCollector;
 
 import java.nio.BufferOverflowException;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -140,6 +141,28 @@ public class TlvBufferUtilsTest {
         List<byte[]> data = new TlvBufferUtils.TlvIterable(0, 1, invalidTlv01).toList();
     }
 
+    /**
+     * Verify that parsing an LV array to a list throws when an element's length runs past the end
+     * of the array, rather than returning a truncated or padded element.
+     */
+    @Test(expected = BufferOverflowException.class)
+    public void testLvParseToListOverrunningElement() {
+        byte[] invalidLv = { 1, 55, 4, 33, 66 }; // second element claims 4 bytes, has 2
+
+        new TlvBufferUtils.TlvIterable(0, 1, invalidLv).toList();
+    }
+
+    /**
+     * Verify that parsing an LV array to a list throws a BufferOverflowException when a length
+     * byte is read as negative (>= 0x80).
+     */
+    @Test(expected = BufferOverflowException.class)
+    public void testLvParseToListNegativeLength() {
+        byte[] invalidLv = { 1, 55, (byte) 0x80, 33, 66 };
+
+        new TlvBufferUtils.TlvIterable(0, 1, invalidLv).toList();
+    }
+
     /**
      * Validate the API which places raw bytes into the TLV (without a TL structure).
      */
@@ -321,4 +344,52 @@ public class TlvBufferUtilsTest {
         collector.checkThat("tlv01-invalid",
                 TlvBufferUtils.isValid(array, 0, 1), equalTo(false));
     }
+
+    /**
+     * Validate that the cursor steps through the same elements as the iterator, including over
+     * a range of a larger array and after being reset.
+     */
+    @Test
+    public void testTlvCursor() {
+        TlvBufferUtils.TlvConstructor tlv12 = new TlvBufferUtils.TlvConstructor(1, 2);
+        tlv12.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+        tlv12.allocate(20);
+        tlv12.putRawByte((byte) 99);
+        tlv12.putShort(3, (short) 1234);
+        tlv12.putZeroLengthElement(4);
+        tlv12.putInt(5, 567890);
+        byte[] array = tlv12.getArray();
+
+        TlvBufferUtils.TlvCursor cursor = new TlvBufferUtils.TlvCursor(1, 2)
+                .setByteOrder(ByteOrder.LITTLE_ENDIAN);
+        for (int pass = 0; pass < 2; pass++) {
+            cursor.reset(array, 1, array.length - 1);
+            collector.checkThat("first", cursor.next(), equalTo(true));
+            collector.checkThat("first-type", cursor.type, equalTo(3));
+            collector.checkThat("first-offset", cursor.offset, equalTo(4));
+            collector.checkThat("first-data", cursor.getShort(), equalTo((short) 1234));
+            collector.checkThat("second", cursor.next(), equalTo(true));
+            collector.checkThat("second-type", cursor.type, equalTo(4));
+            collector.checkThat("second-length", cursor.length, equalTo(0));
+            collector.checkThat("third", cursor.next(), equalTo(true));
+            collector.checkThat("third-type", cursor.type, equalTo(5));
+            collector.checkThat("third-data", cursor.getInt(), equalTo(567890));
+            collector.checkThat("end", cursor.next(), equalTo(false));
+        }
+
+        cursor.reset(null);
+        collector.checkThat("null-array", cursor.next(), equalTo(false));
+    }
+
+    /**
+     * Verify that the cursor throws an exception on an element overrunning the parsed range.
+     */
+    @Test(expected = BufferOverflowException.class)
+    public void testTlvCursorOverflow() {
+        byte[] array = {0, 1, 55, 2, 55, 66, 3};
+        TlvBufferUtils.TlvCursor cursor = new TlvBufferUtils.TlvCursor(0, 1).reset(array, 0, 5);
+        while (cursor.next()) {
+            // consume
+        }
+    }
 }
@@ -17,27 +17,36 @@
 package com.android.server.wifi;
 
 import android.net.wifi.ScanResult;
+import android.net.wifi.SecurityParams;
 import android.net.wifi.WifiConfiguration;
+import android.net.wifi.WifiSsid;
 import android.os.UserHandle;
 import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 
+import com.android.server.wifi.util.ScanResultUtil;
 import com.android.server.wifi.util.WifiPermissionsUtil;
 
 import java.io.FileDescriptor;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 public class ConfigurationMap {
     private final Map<Integer, WifiConfiguration> mPerID = new HashMap<>();
 
     private final Map<Integer, WifiConfiguration> mPerIDForCurrentUser = new HashMap<>();
-    private final Map<ScanResultMatchInfo, WifiConfiguration>
-            mScanResultMatchInfoMapForCurrentUser = new HashMap<>();
+    /**
+     * Saved networks of the current user indexed by SSID. Scan results are matched by looking up
+     * the bucket for their SSID first, so the (comparatively expensive) security params of a scan
+     * result are only generated when a saved network with the same SSID exists.
+     */
+    private final Map<String, List<WifiConfiguration>> mSsidIndexForCurrentUser = new HashMap<>();
 
     @NonNull private final WifiPermissionsUtil mWifiPermissionsUtil;
 
@@ -51,14 +60,16 @@ public class ConfigurationMap {
     public void dump(FileDescriptor fd, PrintWriter pw, String[] args) {
         pw.println("mPerId=" + mPerID);
         pw.println("mPerIDForCurrentUser=" + mPerIDForCurrentUser);
-        pw.println("mScanResultMatchInfoMapForCurrentUser="
-                + mScanResultMatchInfoMapForCurrentUser);
+        pw.println("mSsidIndexForCurrentUser=" + mSsidIndexForCurrentUser);
         pw.println("mCurrentUserId=" + mCurrentUserId);
     }
 
     // RW methods:
     public WifiConfiguration put(WifiConfiguration config) {
         final WifiConfiguration current = mPerID.put(config.networkId, config);
+        if (current != null) {
+            removeFromSsidIndex(current);
+        }
         if (config.shared || mWifiPermissionsUtil
                 .doesUidBelongToCurrentUserOrDeviceOwner(config.creatorUid)) {
             mPerIDForCurrentUser.put(config.networkId, config);
@@ -66,8 +77,7 @@ public class ConfigurationMap {
             // networks.
             if (!config.fromWifiNetworkSpecifier && !config.fromWifiNetworkSuggestion
                     && !config.isPasspoint()) {
-                mScanResultMatchInfoMapForCurrentUser.put(
-                        ScanResultMatchInfo.fromWifiConfiguration(config), config);
+                addToSsidIndex(config);
             }
         }
         return current;
@@ -80,22 +90,63 @@ public class ConfigurationMap {
         }
 
         mPerIDForCurrentUser.remove(netID);
+        removeFromSsidIndex(config);
+        return config;
+    }
 
-        Iterator<Map.Entry<ScanResultMatchInfo, WifiConfiguration>> scanResultMatchInfoEntries =
-                mScanResultMatchInfoMapForCurrentUser.entrySet().iterator();
-        while (scanResultMatchInfoEntries.hasNext()) {
-            if (scanResultMatchInfoEntries.next().getValue().networkId == netID) {
-                scanResultMatchInfoEntries.remove();
+    private void addToSsidIndex(WifiConfiguration config) {
+        List<WifiConfiguration> configs = mSsidIndexForCurrentUser.get(config.SSID);
+        if (configs == null) {
+            configs = new ArrayList<>(1);
+            mSsidIndexForCurrentUser.put(config.SSID, configs);
+        }
+        // A network with identical security params is replaced, same as the former
+        // ScanResultMatchInfo keyed map did.
+        Iterator<WifiConfiguration> iter = configs.iterator();
+        while (iter.hasNext()) {
+            if (iter.next().getSecurityParamsList().equals(config.getSecurityParamsList())) {
+                iter.remove();
                 break;
             }
         }
-        return config;
+        configs.add(config);
+    }
+
+    private void removeFromSsidIndex(WifiConfiguration config) {
+        List<WifiConfiguration> configs = mSsidIndexForCurrentUser.get(config.SSID);
+        if (configs != null && removeByNetworkId(configs, config.networkId)) {
+            if (configs.isEmpty()) {
+                mSsidIndexForCurrentUser.remove(config.SSID);
+            }
+            return;
+        }
+        // The SSID of the indexed object may have been changed in place, fall back to a full scan.
+        Iterator<List<WifiConfiguration>> buckets = mSsidIndexForCurrentUser.values().iterator();
+        while (buckets.hasNext()) {
+            List<WifiConfiguration> bucket = buckets.next();
+            if (removeByNetworkId(bucket, config.networkId)) {
+                if (bucket.isEmpty()) {
+                    buckets.remove();
+                }
+                return;
+            }
+        }
+    }
+
+    private static boolean removeByNetworkId(List<WifiConfiguration> configs, int networkId) {
+        for (int i = 0; i < configs.size(); i++) {
+            if (configs.get(i).networkId == networkId) {
+                configs.remove(i);
+                return true;
+            }
+        }
+        return false;
     }
 
     public void clear() {
         mPerID.clear();
         mPerIDForCurrentUser.clear();
-        mScanResultMatchInfoMapForCurrentUser.clear();
+        mSsidIndexForCurrentUser.clear();
     }
 
     /**
@@ -142,8 +193,21 @@ public class ConfigurationMap {
      * Essentially checks if network config and scan result have the same SSID and encryption type.
      */
     public WifiConfiguration getByScanResultForCurrentUser(ScanResult scanResult) {
-        return mScanResultMatchInfoMapForCurrentUser.get(
-                ScanResultMatchInfo.fromScanResult(scanResult));
+        WifiSsid wifiSsid = scanResult.getWifiSsid();
+        String ssid = wifiSsid != null ? wifiSsid.toString() : "\"" + scanResult.SSID + "\"";
+        List<WifiConfiguration> configs = mSsidIndexForCurrentUser.get(ssid);
+        if (configs == null) {
+            return null;
+        }
+        List<SecurityParams> scanResultParamsList =
+                ScanResultUtil.generateSecurityParamsListFromScanResult(scanResult);
+        for (WifiConfiguration config : configs) {
+            if (ScanResultMatchInfo.getBestMatchingSecurityParams(config, scanResultParamsList)
+                    != null) {
+                return config;
+            }
+        }
+        return null;
     }
 
     public Collection<WifiConfiguration> valuesForAllUsers() {
@@ -188,6 +188,7 @@ public class DeviceConfigFacade {
     private int mBugReportMinWindowMs;
     private int mBugReportThresholdExtraRatio;
     private boolean mWifiBatterySaverEnabled;
+    private boolean mConfigStoreBinaryXmlWriteEnabled;
     private boolean mIsOverlappingConnectionBugreportEnabled;
     private int mOverlappingConnectionDurationThresholdMs;
     private int mTxLinkSpeedLowThresholdMbps;
@@ -341,6 +342,8 @@ public class DeviceConfigFacade {
                 DEFAULT_RX_LINK_SPEED_LOW_THRESHOLD_MBPS);
         mWifiBatterySaverEnabled = DeviceConfig.getBoolean(NAMESPACE, "battery_saver_enabled",
                 false);
+        mConfigStoreBinaryXmlWriteEnabled = DeviceConfig.getBoolean(NAMESPACE,
+                "config_store_binary_xml_write_enabled", false);
         mHealthMonitorShortConnectionDurationThrMs = DeviceConfig.getInt(NAMESPACE,
                 "health_monitor_short_connection_duration_thr_ms",
                 DEFAULT_HEALTH_MONITOR_SHORT_CONNECTION_DURATION_THR_MS);
@@ -706,6 +709,14 @@ public class DeviceConfigFacade {
         return mWifiBatterySaverEnabled;
     }
 
+    /**
+     * Gets the feature flag for writing the config store files in binary XML. Only to be enabled
+     * once every module version that can be rolled back to is able to read binary XML.
+     */
+    public boolean isConfigStoreBinaryXmlWriteEnabled() {
+        return mConfigStoreBinaryXmlWriteEnabled;
+    }
+
     /**
      * Gets health monitor short connection duration threshold in ms
      */
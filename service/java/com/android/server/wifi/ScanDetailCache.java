@@ -26,7 +26,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 /**
  * Maps BSSIDs to their individual ScanDetails for a given WifiConfiguration.
@@ -36,17 +37,42 @@ public class ScanDetailCache {
     private static final String TAG = "ScanDetailCache";
     private static final boolean DBG = false;
 
+    /**
+     * Orders ScanDetails in descending order of timestamp, followed by descending order of RSSI.
+     */
+    private static final Comparator<ScanDetail> RECENCY_COMPARATOR = (o1, o2) -> {
+        ScanResult a = o1.getScanResult();
+        ScanResult b = o2.getScanResult();
+        if (a.seen > b.seen) {
+            return -1;
+        }
+        if (a.seen < b.seen) {
+            return 1;
+        }
+        if (a.level > b.level) {
+            return -1;
+        }
+        if (a.level < b.level) {
+            return 1;
+        }
+        return a.BSSID.compareTo(b.BSSID);
+    };
+
     private final WifiConfiguration mConfig;
     private final int mMaxSize;
     private final int mTrimSize;
-    private final HashMap<String, ScanDetail> mMap;
+    // Kept in the order in which entries were last put, so the head is always the entry that was
+    // refreshed least recently.
+    private final LinkedHashMap<String, ScanDetail> mMap;
+    // Cached result of getMostRecentScanResult(), null when it needs to be recomputed.
+    private ScanDetail mMostRecentScanDetail;
 
     /**
      * Scan Detail cache associated with each configured network.
      *
      * The cache size is trimmed down to |trimSize| once it crosses the provided |maxSize|.
-     * Since this operation is relatively expensive, ensure that |maxSize| and |trimSize| are not
-     * too close to each other. |trimSize| should always be <= |maxSize|.
+     * Entries are evicted in the order they were last put into the cache, so trimming is
+     * amortized O(1) per put. |trimSize| should always be <= |maxSize|.
      *
      * @param config   WifiConfiguration object corresponding to the network.
      * @param maxSize  Max size desired for the cache.
@@ -56,16 +82,32 @@ public class ScanDetailCache {
         mConfig = config;
         mMaxSize = maxSize;
         mTrimSize = trimSize;
-        mMap = new HashMap(16, 0.75f);
+        mMap = new LinkedHashMap<>(16, 0.75f);
     }
 
+    /**
+     * Add or refresh the provided ScanDetail. Putting a ScanDetail that is already present (for
+     * example after its RSSI or timestamp was updated in place) moves it to the most recently
+     * refreshed end of the cache.
+     */
     void put(ScanDetail scanDetail) {
-        // First check if we have reached |maxSize|. if yes, trim it down to |trimSize|.
-        if (mMap.size() >= mMaxSize) {
+        String bssid = scanDetail.getBSSIDString();
+        ScanDetail previous = mMap.remove(bssid);
+        if (previous == null && mMap.size() >= mMaxSize) {
+            // First check if we have reached |maxSize|. if yes, trim it down to |trimSize|.
             trim();
         }
-
-        mMap.put(scanDetail.getBSSIDString(), scanDetail);
+        mMap.put(bssid, scanDetail);
+
+        if (previous != null && previous == mMostRecentScanDetail) {
+            // The entry may have been updated in place with an older/weaker value.
+            mMostRecentScanDetail = null;
+        } else if (mMostRecentScanDetail != null
+                && RECENCY_COMPARATOR.compare(scanDetail, mMostRecentScanDetail) < 0) {
+            mMostRecentScanDetail = scanDetail;
+        } else if (mMap.size() == 1) {
+            mMostRecentScanDetail = scanDetail;
+        }
     }
 
     /**
@@ -90,7 +132,10 @@ public class ScanDetailCache {
     }
 
     void remove(@NonNull String bssid) {
-        mMap.remove(bssid);
+        ScanDetail removed = mMap.remove(bssid);
+        if (removed != null && removed == mMostRecentScanDetail) {
+            mMostRecentScanDetail = null;
+        }
     }
 
     int size() {
@@ -110,35 +155,19 @@ public class ScanDetailCache {
     }
 
     /**
-     * Method to reduce the cache to |mTrimSize| size by removing the oldest entries.
-     * TODO: Investigate if this method can be further optimized.
+     * Method to reduce the cache to |mTrimSize| size by removing the least recently refreshed
+     * entries from the head of the map.
      */
     private void trim() {
-        int currentSize = mMap.size();
-        if (currentSize < mTrimSize) {
-            return; // Nothing to trim
-        }
-        ArrayList<ScanDetail> list = new ArrayList<ScanDetail>(mMap.values());
-        if (list.size() != 0) {
-            // Sort by ascending timestamp (oldest scan results first)
-            Collections.sort(list, new Comparator() {
-                public int compare(Object o1, Object o2) {
-                    ScanDetail a = (ScanDetail) o1;
-                    ScanDetail b = (ScanDetail) o2;
-                    if (a.getSeen() > b.getSeen()) {
-                        return 1;
-                    }
-                    if (a.getSeen() < b.getSeen()) {
-                        return -1;
-                    }
-                    return a.getBSSIDString().compareTo(b.getBSSIDString());
-                }
-            });
-        }
-        for (int i = 0; i < currentSize - mTrimSize; i++) {
-            // Remove oldest results from scan cache
-            ScanDetail result = list.get(i);
-            mMap.remove(result.getBSSIDString());
+        int toRemove = mMap.size() - mTrimSize;
+        Iterator<ScanDetail> iter = mMap.values().iterator();
+        while (toRemove > 0 && iter.hasNext()) {
+            ScanDetail removed = iter.next();
+            iter.remove();
+            if (removed == mMostRecentScanDetail) {
+                mMostRecentScanDetail = null;
+            }
+            toRemove--;
         }
     }
 
@@ -146,11 +175,15 @@ public class ScanDetailCache {
      * Return the most recent ScanResult for this network, or null if non exists.
      */
     public ScanResult getMostRecentScanResult() {
-        ArrayList<ScanDetail> list = sort();
-        if (list.size() == 0) {
-            return null;
+        if (mMostRecentScanDetail == null) {
+            for (ScanDetail scanDetail : mMap.values()) {
+                if (mMostRecentScanDetail == null
+                        || RECENCY_COMPARATOR.compare(scanDetail, mMostRecentScanDetail) < 0) {
+                    mMostRecentScanDetail = scanDetail;
+                }
+            }
         }
-        return list.get(0).getScanResult();
+        return mMostRecentScanDetail == null ? null : mMostRecentScanDetail.getScanResult();
     }
 
     /**
@@ -160,27 +193,7 @@ public class ScanDetailCache {
      **/
     private ArrayList<ScanDetail> sort() {
         ArrayList<ScanDetail> list = new ArrayList<ScanDetail>(mMap.values());
-        if (list.size() != 0) {
-            Collections.sort(list, new Comparator() {
-                public int compare(Object o1, Object o2) {
-                    ScanResult a = ((ScanDetail) o1).getScanResult();
-                    ScanResult b = ((ScanDetail) o2).getScanResult();
-                    if (a.seen > b.seen) {
-                        return -1;
-                    }
-                    if (a.seen < b.seen) {
-                        return 1;
-                    }
-                    if (a.level > b.level) {
-                        return -1;
-                    }
-                    if (a.level < b.level) {
-                        return 1;
-                    }
-                    return a.BSSID.compareTo(b.BSSID);
-                }
-            });
-        }
+        Collections.sort(list, RECENCY_COMPARATOR);
         return list;
     }
 
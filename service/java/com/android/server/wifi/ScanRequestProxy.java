@@ -47,6 +47,7 @@ import com.android.wifi.resources.R;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -117,6 +118,10 @@ public class ScanRequestProxy {
     // Stored as a map of bssid -> ScanResult to allow other clients to perform ScanResult lookup
     // for bssid more efficiently.
     private final Map<String, ScanResult> mLastScanResultsMap = new HashMap<>();
+    // Read-only list of the values of mLastScanResultsMap, shared by all getScanResults() callers
+    // until the next full scan. Only replaced on the Wifi thread, but published to binder threads
+    // which read it without posting to the Wifi thread.
+    private volatile List<ScanResult> mLastScanResults = Collections.emptyList();
     // external ScanResultCallback tracker
     private final RemoteCallbackList<IScanResultsCallback> mRegisteredScanResultsCallbacks;
     // Global scan listener for listening to all scan requests.
@@ -152,6 +157,8 @@ public class ScanRequestProxy {
                 // Store the last scan results & send out the scan completion broadcast.
                 mLastScanResultsMap.clear();
                 Arrays.stream(scanResults).forEach(s -> mLastScanResultsMap.put(s.BSSID, s));
+                mLastScanResults = Collections.unmodifiableList(
+                        new ArrayList<>(mLastScanResultsMap.values()));
                 sendScanResultBroadcast(true);
                 sendScanResultsAvailableToCallbacks();
             }
@@ -503,11 +510,14 @@ public class ScanRequestProxy {
     /**
      * Return the results of the most recent access point scan, in the form of
      * a list of {@link ScanResult} objects.
+     *
+     * The same read-only list is returned to every caller until the next full scan, so callers
+     * that need to modify it must make their own copy. Unlike the other methods of this class,
+     * this may be called from any thread.
      * @return the list of results
      */
     public List<ScanResult> getScanResults() {
-        // return a copy to prevent external modification
-        return new ArrayList<>(mLastScanResultsMap.values());
+        return mLastScanResults;
     }
 
     /**
@@ -529,6 +539,7 @@ public class ScanRequestProxy {
      */
     private void clearScanResults() {
         mLastScanResultsMap.clear();
+        mLastScanResults = Collections.emptyList();
         mLastScanTimestampForBgApps = 0;
         mLastScanTimestampsForFgApps.clear();
     }
@@ -20,8 +20,7 @@ import android.net.wifi.ScanResult;
 import android.net.wifi.WifiInfo;
 import android.util.Log;
 
-import com.android.server.wifi.util.KalmanFilter;
-import com.android.server.wifi.util.Matrix;
+import com.android.server.wifi.util.TwoStateKalmanFilter;
 
 /**
  * Class used to calculate scores for connected wifi networks and report it to the associated
@@ -34,15 +33,16 @@ public class VelocityBasedConnectedScore extends ConnectedScore {
 
     private int mFrequency = ScanResult.BAND_5_GHZ_START_FREQ_MHZ;
     private double mThresholdAdjustment;
-    private final KalmanFilter mFilter;
+    private final TwoStateKalmanFilter mFilter;
+    private boolean mFilterInitialized;
     private long mLastMillis;
 
     public VelocityBasedConnectedScore(ScoringParams scoringParams, Clock clock) {
         super(clock);
         mScoringParams = scoringParams;
-        mFilter = new KalmanFilter();
-        mFilter.mH = new Matrix(2, new double[]{1.0, 0.0});
-        mFilter.mR = new Matrix(1, new double[]{1.0});
+        mFilter = new TwoStateKalmanFilter();
+        mFilter.setObservationModel(1.0, 0.0);
+        mFilter.setObservationNoiseVariance(1.0);
     }
 
     /**
@@ -52,12 +52,15 @@ public class VelocityBasedConnectedScore extends ConnectedScore {
      * @param dt delta time, in seconds
      */
     private void setDeltaTimeSeconds(double dt) {
-        mFilter.mF = new Matrix(2, new double[]{1.0, dt, 0.0, 1.0});
-        Matrix tG = new Matrix(1, new double[]{0.5 * dt * dt, dt});
+        mFilter.setStateTransition(1.0, dt, 0.0, 1.0);
+        double g0 = 0.5 * dt * dt;
+        double g1 = dt;
         double stda = 0.02; // standard deviation of modelled acceleration
-        mFilter.mQ = tG.dotTranspose(tG).dot(new Matrix(2, new double[]{
-                stda * stda, 0.0,
-                0.0, stda * stda}));
+        double variance = stda * stda;
+        // Q = G.G'.diag(variance, variance)
+        mFilter.setProcessNoiseCovariance(
+                g0 * g0 * variance, g0 * g1 * variance,
+                g1 * g0 * variance, g1 * g1 * variance);
     }
     /**
      * Reset the filter state.
@@ -66,7 +69,7 @@ public class VelocityBasedConnectedScore extends ConnectedScore {
     public void reset() {
         mLastMillis = 0;
         mThresholdAdjustment = 0;
-        mFilter.mx = null;
+        mFilterInitialized = false;
     }
 
     /**
@@ -83,20 +86,21 @@ public class VelocityBasedConnectedScore extends ConnectedScore {
     public void updateUsingRssi(int rssi, long millis, double standardDeviation) {
         if (millis <= 0) return;
         try {
-            if (mLastMillis <= 0 || millis < mLastMillis || mFilter.mx == null) {
+            if (mLastMillis <= 0 || millis < mLastMillis || !mFilterInitialized) {
                 double initialVariance = 9.0 * standardDeviation * standardDeviation;
-                mFilter.mx = new Matrix(1, new double[]{rssi, 0.0});
-                mFilter.mP = new Matrix(2, new double[]{initialVariance, 0.0, 0.0, 0.0});
+                mFilter.setState(rssi, 0.0);
+                mFilter.setErrorCovariance(initialVariance, 0.0, 0.0, 0.0);
+                mFilterInitialized = true;
             } else {
                 double dt = (millis - mLastMillis) * 0.001;
-                mFilter.mR.put(0, 0, standardDeviation * standardDeviation);
+                mFilter.setObservationNoiseVariance(standardDeviation * standardDeviation);
                 setDeltaTimeSeconds(dt);
                 mFilter.predict();
-                mFilter.update(new Matrix(1, new double[]{rssi}));
+                mFilter.update(rssi);
             }
             mLastMillis = millis;
-            mFilteredRssi = mFilter.mx.get(0, 0);
-            mEstimatedRateOfRssiChange = mFilter.mx.get(1, 0);
+            mFilteredRssi = mFilter.getState(0);
+            mEstimatedRateOfRssiChange = mFilter.getState(1);
         } catch (RuntimeException e) {
             Log.wtf(TAG, e);
             reset();
@@ -178,14 +182,12 @@ public class VelocityBasedConnectedScore extends ConnectedScore {
     public int generateScore() {
         final int transitionScore = isPrimary() ? WIFI_TRANSITION_SCORE
                 : WIFI_SECONDARY_TRANSITION_SCORE;
-        if (mFilter.mx == null) return transitionScore + 1;
+        if (!mFilterInitialized) return transitionScore + 1;
         double badRssi = getAdjustedRssiThreshold();
         double horizonSeconds = mScoringParams.getHorizonSeconds();
-        Matrix x = new Matrix(mFilter.mx);
-        double filteredRssi = x.get(0, 0);
-        setDeltaTimeSeconds(horizonSeconds);
-        x = mFilter.mF.dot(x);
-        double forecastRssi = x.get(0, 0);
+        double filteredRssi = mFilter.getState(0);
+        // First row of F.x, with F for a time step of horizonSeconds
+        double forecastRssi = filteredRssi + horizonSeconds * mFilter.getState(1);
         if (forecastRssi > filteredRssi) {
             forecastRssi = filteredRssi; // Be pessimistic about predicting an actual increase
         }
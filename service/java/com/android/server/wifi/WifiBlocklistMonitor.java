@@ -43,11 +43,13 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -132,6 +134,11 @@ public class WifiBlocklistMonitor {
 
     // Map of bssid to BssidStatus
     private Map<String, BssidStatus> mBssidStatusMap = new ArrayMap<>();
+    // Map of ssid to the BssidStatus of its BSSIDs that are in the blocklist, keyed by bssid
+    private final Map<String, Map<String, BssidStatus>> mBlockedBssidsBySsid = new ArrayMap<>();
+    // Blocklist end times, earliest first. Each blocked BssidStatus has exactly one entry, which
+    // is removed as soon as the BSSID is unblocked or blocked again.
+    private final PriorityQueue<BlocklistExpiry> mBlocklistExpiryQueue = new PriorityQueue<>();
     private Set<String> mDisabledSsids = new ArraySet<>();
 
     // Internal logger to make sure imporatant logs do not get lost.
@@ -251,6 +258,15 @@ public class WifiBlocklistMonitor {
     private void addToBlocklist(@NonNull BssidStatus entry, long durationMs,
             @FailureReason int reason, int rssi) {
         entry.setAsBlocked(durationMs, reason, rssi);
+        Map<String, BssidStatus> blockedBssids = mBlockedBssidsBySsid.get(entry.ssid);
+        if (blockedBssids == null) {
+            blockedBssids = new ArrayMap<>();
+            mBlockedBssidsBySsid.put(entry.ssid, blockedBssids);
+        }
+        blockedBssids.put(entry.bssid, entry);
+        removeBlocklistExpiry(entry);
+        entry.blocklistExpiry = new BlocklistExpiry(entry);
+        mBlocklistExpiryQueue.add(entry.blocklistExpiry);
         localLog(TAG + " addToBlocklist: bssid=" + entry.bssid + ", ssid=" + entry.ssid
                 + ", durationMs=" + durationMs + ", reason=" + getFailureReasonString(reason)
                 + ", rssi=" + rssi);
@@ -278,6 +294,7 @@ public class WifiBlocklistMonitor {
             if (status != null) {
                 localLog("getOrCreateBssidStatus: BSSID=" + bssid + ", SSID changed from "
                         + status.ssid + " to " + ssid);
+                removeFromBlockedBssids(status);
             }
             status = new BssidStatus(bssid, ssid);
             mBssidStatusMap.put(bssid, status);
@@ -285,6 +302,47 @@ public class WifiBlocklistMonitor {
         return status;
     }
 
+    /**
+     * Removes the BssidStatus from the map of BSSIDs and from the blocklist.
+     */
+    private void removeBssidStatus(@NonNull BssidStatus status) {
+        mBssidStatusMap.remove(status.bssid);
+        removeFromBlockedBssids(status);
+    }
+
+    /**
+     * Removes the BssidStatus from the index of blocked BSSIDs by SSID, if present.
+     */
+    private void removeFromBlockedBssids(@NonNull BssidStatus status) {
+        removeBlocklistExpiry(status);
+        Map<String, BssidStatus> blockedBssids = mBlockedBssidsBySsid.get(status.ssid);
+        if (blockedBssids == null || blockedBssids.get(status.bssid) != status) {
+            return;
+        }
+        blockedBssids.remove(status.bssid);
+        if (blockedBssids.isEmpty()) {
+            mBlockedBssidsBySsid.remove(status.ssid);
+        }
+    }
+
+    /**
+     * Removes the pending blocklist expiry of the BssidStatus from the queue, if any.
+     */
+    private void removeBlocklistExpiry(@NonNull BssidStatus status) {
+        if (status.blocklistExpiry != null) {
+            mBlocklistExpiryQueue.remove(status.blocklistExpiry);
+            status.blocklistExpiry = null;
+        }
+    }
+
+    /**
+     * Returns the BssidStatus of the BSSIDs of |ssid| that are in the blocklist.
+     */
+    private @NonNull Collection<BssidStatus> getBlockedBssidStatusesForSsid(String ssid) {
+        Map<String, BssidStatus> blockedBssids = mBlockedBssidsBySsid.get(ssid);
+        return blockedBssids == null ? Collections.emptyList() : blockedBssids.values();
+    }
+
     /**
      * Set a list of SSIDs that will always be enabled for network selection.
      */
@@ -547,7 +605,7 @@ public class WifiBlocklistMonitor {
          **/
         if (status.isInBlocklist) {
             mBssidBlocklistMonitorLogger.logBssidUnblocked(status, "Network validation success");
-            mBssidStatusMap.remove(bssid);
+            removeBssidStatus(status);
         }
     }
 
@@ -587,6 +645,7 @@ public class WifiBlocklistMonitor {
             if (status.ssid.equals(ssid)) {
                 mBssidBlocklistMonitorLogger.logBssidUnblocked(
                         status, "clearBssidBlocklistForSsid");
+                removeFromBlockedBssids(status);
                 return true;
             }
             return false;
@@ -608,6 +667,8 @@ public class WifiBlocklistMonitor {
                 mBssidBlocklistMonitorLogger.logBssidUnblocked(status, "clearBssidBlocklist");
             }
             mBssidStatusMap.clear();
+            mBlockedBssidsBySsid.clear();
+            mBlocklistExpiryQueue.clear();
             localLog(TAG + " clearBssidBlocklist: num BSSIDs cleared="
                     + (prevSize - mBssidStatusMap.size()));
         }
@@ -619,17 +680,16 @@ public class WifiBlocklistMonitor {
      * @return the number of BSSIDs currently in the blocklist for the |ssid|.
      */
     public int updateAndGetNumBlockedBssidsForSsid(@NonNull String ssid) {
-        return (int) updateAndGetBssidBlocklistInternal()
-                .filter(entry -> ssid.equals(entry.ssid)).count();
+        removeExpiredBlocklistEntries();
+        return getBlockedBssidStatusesForSsid(ssid).size();
     }
 
     private int getNumBlockedBssidsForSsids(@NonNull Set<String> ssids) {
-        if (ssids.isEmpty()) {
-            return 0;
+        int numBlocked = 0;
+        for (String ssid : ssids) {
+            numBlocked += getBlockedBssidStatusesForSsid(ssid).size();
         }
-        return (int) mBssidStatusMap.values().stream()
-                .filter(entry -> entry.isInBlocklist && ssids.contains(entry.ssid))
-                .count();
+        return numBlocked;
     }
 
     /**
@@ -666,10 +726,11 @@ public class WifiBlocklistMonitor {
         if (ssid == null) {
             return Collections.emptySet();
         }
-        return mBssidStatusMap.values().stream()
-                .filter(entry -> entry.isInBlocklist && ssid.equals(entry.ssid))
-                .map(entry -> entry.blockReason)
-                .collect(Collectors.toSet());
+        Set<Integer> reasons = new ArraySet<>();
+        for (BssidStatus status : getBlockedBssidStatusesForSsid(ssid)) {
+            reasons.add(status.blockReason);
+        }
+        return reasons;
     }
 
     /**
@@ -702,7 +763,7 @@ public class WifiBlocklistMonitor {
             if (rssiMinDiffAchieved && (sufficientRssiBreached || goodRssiBreached)) {
                 mBssidBlocklistMonitorLogger.logBssidUnblocked(
                         status, "rssi significantly improved");
-                mBssidStatusMap.remove(status.bssid);
+                removeBssidStatus(status);
                 results.add(scanDetail);
             }
         }
@@ -719,21 +780,25 @@ public class WifiBlocklistMonitor {
      * @return Stream of BssidStatus for BSSIDs that are in the blocklist.
      */
     private Stream<BssidStatus> updateAndGetBssidBlocklistInternal() {
-        Stream.Builder<BssidStatus> builder = Stream.builder();
+        removeExpiredBlocklistEntries();
+        return mBlockedBssidsBySsid.values().stream()
+                .flatMap(blockedBssids -> blockedBssids.values().stream());
+    }
+
+    /**
+     * Removes the BssidStatus entries whose blocklist duration has ended. Only the entries that
+     * are due are visited.
+     */
+    private void removeExpiredBlocklistEntries() {
         long curTime = mClock.getWallClockMillis();
-        mBssidStatusMap.entrySet().removeIf(e -> {
-            BssidStatus status = e.getValue();
-            if (status.isInBlocklist) {
-                if (status.blocklistEndTimeMs < curTime) {
-                    mBssidBlocklistMonitorLogger.logBssidUnblocked(
-                            status, "updateAndGetBssidBlocklistInternal");
-                    return true;
-                }
-                builder.accept(status);
-            }
-            return false;
-        });
-        return builder.build();
+        while (!mBlocklistExpiryQueue.isEmpty()
+                && mBlocklistExpiryQueue.peek().endTimeMs < curTime) {
+            BssidStatus status = mBlocklistExpiryQueue.poll().status;
+            status.blocklistExpiry = null;
+            mBssidBlocklistMonitorLogger.logBssidUnblocked(
+                    status, "updateAndGetBssidBlocklistInternal");
+            removeBssidStatus(status);
+        }
     }
 
     /**
@@ -745,8 +810,9 @@ public class WifiBlocklistMonitor {
         if (!mConnectivityHelper.isFirmwareRoamingSupported()) {
             return;
         }
-        ArrayList<String> bssidBlocklist = updateAndGetBssidBlocklistInternal()
-                .filter(entry -> ssids.contains(entry.ssid))
+        removeExpiredBlocklistEntries();
+        ArrayList<String> bssidBlocklist = ssids.stream()
+                .flatMap(ssid -> getBlockedBssidStatusesForSsid(ssid).stream())
                 .sorted((o1, o2) -> (int) (o2.blocklistEndTimeMs - o1.blocklistEndTimeMs))
                 .map(entry -> entry.bssid)
                 .collect(Collectors.toCollection(ArrayList::new));
@@ -800,6 +866,11 @@ public class WifiBlocklistMonitor {
         }
     }
 
+    @VisibleForTesting
+    public int getBlocklistExpiryQueueSize() {
+        return mBlocklistExpiryQueue.size();
+    }
+
     @VisibleForTesting
     public int getBssidBlocklistMonitorLoggerSize() {
         return mBssidBlocklistMonitorLogger.size();
@@ -872,6 +943,24 @@ public class WifiBlocklistMonitor {
         }
     }
 
+    /**
+     * Blocklist end time of a BssidStatus, as it was when the BSSID was blocked.
+     */
+    private static class BlocklistExpiry implements Comparable<BlocklistExpiry> {
+        public final long endTimeMs;
+        public final BssidStatus status;
+
+        BlocklistExpiry(BssidStatus status) {
+            this.endTimeMs = status.blocklistEndTimeMs;
+            this.status = status;
+        }
+
+        @Override
+        public int compareTo(BlocklistExpiry other) {
+            return Long.compare(endTimeMs, other.endTimeMs);
+        }
+    }
+
     /**
      * Helper class that counts the number of failures per BSSID.
      */
@@ -887,6 +976,8 @@ public class WifiBlocklistMonitor {
         public boolean isInBlocklist;
         public long blocklistEndTimeMs;
         public long blocklistStartTimeMs;
+        // The entry of this BSSID in the blocklist expiry queue, if it is blocked.
+        public BlocklistExpiry blocklistExpiry;
 
         BssidStatus(String bssid, String ssid) {
             this.bssid = bssid;
@@ -500,6 +500,8 @@ public class WifiCandidates {
     }
 
     private final Map<Key, Candidate> mCandidates = new ArrayMap<>();
+    // Read-only copy of mCandidates.values() shared by scorers, or null if it needs rebuilding
+    @Nullable private Collection<Candidate> mCandidatesSnapshot = null;
 
     private int mCurrentNetworkId = -1;
     @Nullable private MacAddress mCurrentBssid = null;
@@ -596,6 +598,7 @@ public class WifiCandidates {
                 isCarrierOrPrivileged,
                 predictedThroughputMbps);
         mCandidates.put(key, candidate);
+        mCandidatesSnapshot = null;
         return true;
     }
 
@@ -634,6 +637,7 @@ public class WifiCandidates {
      */
     public boolean remove(Candidate candidate) {
         if (!(candidate instanceof CandidateImpl)) return failure();
+        mCandidatesSnapshot = null;
         return mCandidates.remove(candidate.getKey(), candidate);
     }
 
@@ -671,12 +675,18 @@ public class WifiCandidates {
     /**
      * Make a choice from among the candidates, using the provided scorer.
      *
+     * Scorers are given a read-only view of the candidates, which is shared by all scorers until
+     * the candidates change.
+     *
      * @return the chosen scored candidate, or ScoredCandidate.NONE.
      */
     public @NonNull ScoredCandidate choose(@NonNull CandidateScorer candidateScorer) {
         Preconditions.checkNotNull(candidateScorer);
-        Collection<Candidate> candidates = new ArrayList<>(mCandidates.values());
-        ScoredCandidate choice = candidateScorer.scoreCandidates(candidates);
+        if (mCandidatesSnapshot == null) {
+            mCandidatesSnapshot = Collections.unmodifiableList(
+                    new ArrayList<>(mCandidates.values()));
+        }
+        ScoredCandidate choice = candidateScorer.scoreCandidates(mCandidatesSnapshot);
         return choice == null ? ScoredCandidate.NONE : choice;
     }
 
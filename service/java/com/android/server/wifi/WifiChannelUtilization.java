@@ -76,6 +76,8 @@ public class WifiChannelUtilization {
     private ArrayDeque<SparseArray<ChannelStats>> mChannelStatsMapCache = new ArrayDeque<>();
     private long mLastChannelStatsMapTimeStamp;
     private int mLastChannelStatsMapMobilityState;
+    // Reused placeholder reference returned by findChanStatsReference().
+    private final ChannelStats mPlaceholderChannelStats = new ChannelStats();
 
     WifiChannelUtilization(Clock clock, Context context) {
         mContext = context;
@@ -234,12 +236,9 @@ public class WifiChannelUtilization {
      *             or a placeholder channelStats with time zero if channelStats is not found
      *             for the given frequency,
      *             or a placeholder channelStats with the latest radioOnTimeMs if it reaches
-     *             the end of cache.
+     *             the end of cache. Placeholders are only valid until the next call.
      */
     private ChannelStats findChanStatsReference(int freq, int radioOnTimeMs) {
-        // A placeholder channelStats with the latest radioOnTimeMs.
-        ChannelStats channelStatsCurrRadioOnTime = new ChannelStats();
-        channelStatsCurrRadioOnTime.radioOnTimeMs = radioOnTimeMs;
         Iterator iterator = mChannelStatsMapCache.iterator();
         while (iterator.hasNext()) {
             SparseArray<ChannelStats> channelStatsMap = (SparseArray<ChannelStats>) iterator.next();
@@ -248,7 +247,7 @@ public class WifiChannelUtilization {
             // in HW and thus a recent reading should have channels no less than old readings.
             // Return a placeholder channelStats with zero radioOnTimeMs
             if (channelStatsMap == null || channelStatsMap.get(freq) == null) {
-                return new ChannelStats();
+                return placeholderChannelStats(0);
             }
             ChannelStats channelStats = channelStatsMap.get(freq);
             int radioOnTimeDiff = radioOnTimeMs - channelStats.radioOnTimeMs;
@@ -256,7 +255,13 @@ public class WifiChannelUtilization {
                 return channelStats;
             }
         }
-        return channelStatsCurrRadioOnTime;
+        return placeholderChannelStats(radioOnTimeMs);
+    }
+
+    private ChannelStats placeholderChannelStats(int radioOnTimeMs) {
+        mPlaceholderChannelStats.radioOnTimeMs = radioOnTimeMs;
+        mPlaceholderChannelStats.ccaBusyTimeMs = 0;
+        return mPlaceholderChannelStats;
     }
 
     private int calculateUtilizationRatio(int radioOnTimeDiff, int busyTimeDiff) {
@@ -750,8 +750,9 @@ public class WifiConfigManager {
      */
     private List<WifiConfiguration> getConfiguredNetworks(
             boolean savedOnly, boolean maskPasswords, int targetUid) {
-        List<WifiConfiguration> networks = new ArrayList<>();
-        for (WifiConfiguration config : getInternalConfiguredNetworks()) {
+        Collection<WifiConfiguration> internalConfigs = getInternalConfiguredNetworks();
+        List<WifiConfiguration> networks = new ArrayList<>(internalConfigs.size());
+        for (WifiConfiguration config : internalConfigs) {
             if (savedOnly && (config.ephemeral || config.isPasspoint())) {
                 continue;
             }
@@ -2627,6 +2628,24 @@ public class WifiConfigManager {
      * null if none exists.
      */
     public WifiConfiguration getSavedNetworkForScanDetailAndCache(ScanDetail scanDetail) {
+        WifiConfiguration network = getInternalSavedNetworkForScanDetailAndCache(scanDetail);
+        if (network == null) {
+            return null;
+        }
+        return createExternalWifiConfiguration(network, true, Process.WIFI_UID);
+    }
+
+    /**
+     * Same as {@link #getSavedNetworkForScanDetailAndCache(ScanDetail)}, but returns the internal
+     * WifiConfiguration object instead of a copy. This is for callers on the scan results path
+     * that only need to read the network. The returned object must not be modified.
+     *
+     * @param scanDetail input a scanDetail from the scan result
+     * @return the internal WifiConfiguration object representing the network corresponding to
+     * the scanDetail, null if none exists.
+     */
+    public WifiConfiguration getInternalSavedNetworkForScanDetailAndCache(
+            ScanDetail scanDetail) {
         WifiConfiguration network = getSavedNetworkForScanDetail(scanDetail);
         if (network == null) {
             return null;
@@ -2641,7 +2660,7 @@ public class WifiConfigManager {
                 && scanDetail.getNetworkDetail().getDtimInterval() > 0) {
             network.dtimInterval = scanDetail.getNetworkDetail().getDtimInterval();
         }
-        return createExternalWifiConfiguration(network, true, Process.WIFI_UID);
+        return network;
     }
 
     /**
@@ -2678,6 +2697,8 @@ public class WifiConfigManager {
                             + " RSSI=" + result.level
                             + " for " + config.getProfileKey());
                 }
+                // Re-insert to refresh the entry's position in the cache's eviction order.
+                scanDetailCache.put(scanDetail);
             }
         }
     }
@@ -2884,9 +2905,14 @@ public class WifiConfigManager {
     public List<WifiScanner.ScanSettings.HiddenNetwork> retrieveHiddenNetworkList(
             boolean autoJoinOnly) {
         List<WifiScanner.ScanSettings.HiddenNetwork> hiddenList = new ArrayList<>();
-        List<WifiConfiguration> networks = getConfiguredNetworks();
-        // Remove any non hidden networks.
-        networks.removeIf(config -> !config.hiddenSSID);
+        // Only the SSID and a few selection fields are read here, so sort the internal objects
+        // directly instead of creating a masked copy of every configured network on each scan.
+        List<WifiConfiguration> networks = new ArrayList<>();
+        for (WifiConfiguration config : getInternalConfiguredNetworks()) {
+            if (config.hiddenSSID) {
+                networks.add(config);
+            }
+        }
         networks.sort(mScanListComparator);
         // The most frequently connected network has the highest priority now.
         for (WifiConfiguration config : networks) {
@@ -3471,7 +3497,8 @@ public class WifiConfigManager {
             Log.i(TAG, "Handling user unlock before loading from store.");
             List<WifiConfigStore.StoreFile> userStoreFiles =
                     WifiConfigStore.createUserFiles(
-                            mCurrentUserId, mFrameworkFacade.isNiapModeOn(mContext));
+                            mCurrentUserId, mFrameworkFacade.isNiapModeOn(mContext),
+                            mWifiInjector.getConfigStoreFileFormat());
             if (userStoreFiles == null) {
                 Log.wtf(TAG, "Failed to create user store files");
                 return false;
@@ -3511,7 +3538,8 @@ public class WifiConfigManager {
         try {
             List<WifiConfigStore.StoreFile> userStoreFiles =
                     WifiConfigStore.createUserFiles(
-                            userId, mFrameworkFacade.isNiapModeOn(mContext));
+                            userId, mFrameworkFacade.isNiapModeOn(mContext),
+                            mWifiInjector.getConfigStoreFileFormat());
             if (userStoreFiles == null) {
                 Log.e(TAG, "Failed to create user store files");
                 return false;
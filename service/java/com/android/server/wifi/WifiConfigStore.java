@@ -26,6 +26,7 @@ import android.content.Context;
 import android.net.wifi.WifiMigration;
 import android.net.wifi.util.Environment;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.os.UserHandle;
 import android.util.AtomicFile;
 import android.util.Log;
@@ -35,6 +36,8 @@ import android.util.Xml;
 import com.android.internal.annotations.VisibleForTesting;
 import com.android.internal.util.FastXmlSerializer;
 import com.android.internal.util.Preconditions;
+import com.android.modules.utils.BinaryXmlPullParser;
+import com.android.modules.utils.BinaryXmlSerializer;
 import com.android.server.wifi.util.EncryptedData;
 import com.android.server.wifi.util.FileUtils;
 import com.android.server.wifi.util.WifiConfigStoreEncryptionUtil;
@@ -56,6 +59,8 @@ import java.io.PrintWriter;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -106,6 +111,23 @@ public class WifiConfigStore {
     @Retention(RetentionPolicy.SOURCE)
     public @interface StoreFileId { }
 
+    /**
+     * Store file is serialized as textual XML.
+     */
+    public static final int STORE_FILE_FORMAT_XML = 0;
+    /**
+     * Store file is serialized using the compact, versioned binary XML encoding. This is much
+     * cheaper to parse at boot than textual XML.
+     */
+    public static final int STORE_FILE_FORMAT_BINARY_XML = 1;
+
+    @IntDef(prefix = { "STORE_FILE_FORMAT_" }, value = {
+            STORE_FILE_FORMAT_XML,
+            STORE_FILE_FORMAT_BINARY_XML
+    })
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface StoreFileFormat { }
+
     private static final String XML_TAG_DOCUMENT_HEADER = "WifiConfigStoreData";
     private static final String XML_TAG_VERSION = "Version";
     private static final String XML_TAG_HEADER_INTEGRITY = "Integrity";
@@ -301,10 +323,12 @@ public class WifiConfigStore {
      * @param fileId Identifier for the file. See {@link StoreFileId}.
      * @param userHandle User handle. Meaningful only for user specific store files.
      * @param shouldEncryptCredentials Whether to encrypt credentials or not.
+     * @param format Format to write the store file in. See {@link StoreFileFormat}.
      * @return new instance of the store file or null if the directory cannot be created.
      */
     private static @Nullable StoreFile createFile(@NonNull File storeDir,
-            @StoreFileId int fileId, UserHandle userHandle, boolean shouldEncryptCredentials) {
+            @StoreFileId int fileId, UserHandle userHandle, boolean shouldEncryptCredentials,
+            @StoreFileFormat int format) {
         if (!storeDir.exists()) {
             if (!storeDir.mkdir()) {
                 Log.w(TAG, "Could not create store directory " + storeDir);
@@ -316,15 +340,16 @@ public class WifiConfigStore {
         if (shouldEncryptCredentials) {
             encryptionUtil = new WifiConfigStoreEncryptionUtil(file.getName());
         }
-        return new StoreFile(file, fileId, userHandle, encryptionUtil);
+        return new StoreFile(file, fileId, userHandle, encryptionUtil, format);
     }
 
     private static @Nullable List<StoreFile> createFiles(File storeDir, List<Integer> storeFileIds,
-            UserHandle userHandle, boolean shouldEncryptCredentials) {
+            UserHandle userHandle, boolean shouldEncryptCredentials,
+            @StoreFileFormat int format) {
         List<StoreFile> storeFiles = new ArrayList<>();
         for (int fileId : storeFileIds) {
             StoreFile storeFile =
-                    createFile(storeDir, fileId, userHandle, shouldEncryptCredentials);
+                    createFile(storeDir, fileId, userHandle, shouldEncryptCredentials, format);
             if (storeFile == null) {
                 return null;
             }
@@ -337,14 +362,17 @@ public class WifiConfigStore {
      * Create a new instance of the shared store file.
      *
      * @param shouldEncryptCredentials Whether to encrypt credentials or not.
+     * @param format Format to write the store files in. See {@link StoreFileFormat}.
      * @return new instance of the store file or null if the directory cannot be created.
      */
-    public static @NonNull List<StoreFile> createSharedFiles(boolean shouldEncryptCredentials) {
+    public static @NonNull List<StoreFile> createSharedFiles(boolean shouldEncryptCredentials,
+            @StoreFileFormat int format) {
         return createFiles(
                 Environment.getWifiSharedDirectory(),
                 Arrays.asList(STORE_FILE_SHARED_GENERAL, STORE_FILE_SHARED_SOFTAP),
                 UserHandle.ALL,
-                shouldEncryptCredentials);
+                shouldEncryptCredentials,
+                format);
     }
 
     /**
@@ -353,17 +381,19 @@ public class WifiConfigStore {
      *
      * @param userId userId corresponding to the currently logged-in user.
      * @param shouldEncryptCredentials Whether to encrypt credentials or not.
+     * @param format Format to write the store files in. See {@link StoreFileFormat}.
      * @return List of new instances of the store files created or null if the directory cannot be
      * created.
      */
     public static @Nullable List<StoreFile> createUserFiles(int userId,
-            boolean shouldEncryptCredentials) {
+            boolean shouldEncryptCredentials, @StoreFileFormat int format) {
         UserHandle userHandle = UserHandle.of(userId);
         return createFiles(
                 Environment.getWifiUserDirectory(userId),
                 Arrays.asList(STORE_FILE_USER_GENERAL, STORE_FILE_USER_NETWORK_SUGGESTIONS),
                 userHandle,
-                shouldEncryptCredentials);
+                shouldEncryptCredentials,
+                format);
     }
 
     /**
@@ -389,6 +419,10 @@ public class WifiConfigStore {
      * for the provided {@link StoreFile }have indicated that they have new data to serialize.
      */
     private boolean hasNewDataToSerialize(@NonNull StoreFile storeFile) {
+        if (storeFile.isFormatMigrationPending()) {
+            // Rewrite the file in the configured format even if nothing else changed.
+            return true;
+        }
         List<StoreData> storeDataList = retrieveStoreDataListForStoreFile(storeFile);
         return storeDataList.stream().anyMatch(s -> s.hasNewDataToSerialize());
     }
@@ -452,9 +486,26 @@ public class WifiConfigStore {
      */
     private byte[] serializeData(@NonNull StoreFile storeFile)
             throws XmlPullParserException, IOException {
+        if (storeFile.getFormat() == STORE_FILE_FORMAT_BINARY_XML) {
+            try {
+                return serializeData(storeFile, new BinaryXmlSerializer());
+            } catch (IOException | RuntimeException e) {
+                // The binary encoding has limits (e.g. on the length of a single string) that the
+                // textual encoding does not have, fallback to XML rather than losing the data.
+                Log.e(TAG, "Binary serialization failed for " + storeFile.getName()
+                        + ", falling back to XML", e);
+            }
+        }
+        return serializeData(storeFile, new FastXmlSerializer());
+    }
+
+    /**
+     * Serialize all the data for the provided {@link StoreFile} using the provided serializer.
+     */
+    private byte[] serializeData(@NonNull StoreFile storeFile, @NonNull XmlSerializer out)
+            throws XmlPullParserException, IOException {
         List<StoreData> storeDataList = retrieveStoreDataListForStoreFile(storeFile);
 
-        final XmlSerializer out = new FastXmlSerializer();
         final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         out.setOutput(outputStream, StandardCharsets.UTF_8.name());
 
@@ -469,6 +520,7 @@ public class WifiConfigStore {
             XmlUtil.writeNextSectionEnd(out, tag);
         }
         XmlUtil.writeDocumentEnd(out, XML_TAG_DOCUMENT_HEADER);
+        out.flush();
         return outputStream.toByteArray();
     }
 
@@ -669,6 +721,29 @@ public class WifiConfigStore {
             // Silently ignore on any overflow errors.
         }
         Log.d(TAG, "Reading from all stores completed in " + readTime + " ms.");
+        migrateStoreFilesFormatIfNeeded();
+    }
+
+    /**
+     * Schedule a buffered write for the store files read in a format different from the one
+     * configured, so that they are migrated without waiting for a data change.
+     */
+    private void migrateStoreFilesFormatIfNeeded() throws XmlPullParserException, IOException {
+        boolean hasAnyMigration = false;
+        for (StoreFile storeFile : Stream.of(mSharedStores, mUserStores)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .collect(Collectors.toList())) {
+            if (storeFile.isFormatMigrationPending()) {
+                Log.i(TAG, "Migrating store file " + storeFile.getName() + " to format "
+                        + storeFile.getFormat());
+                storeFile.storeRawDataToWrite(serializeData(storeFile));
+                hasAnyMigration = true;
+            }
+        }
+        if (hasAnyMigration) {
+            startBufferedWriteAlarm();
+        }
     }
 
     /**
@@ -697,6 +772,7 @@ public class WifiConfigStore {
         long readTime = mClock.getElapsedSinceBootMillis() - readStartTime;
         mWifiMetrics.noteWifiConfigStoreReadDuration(toIntExact(readTime));
         Log.d(TAG, "Reading from user stores completed in " + readTime + " ms.");
+        migrateStoreFilesFormatIfNeeded();
     }
 
     /**
@@ -739,7 +815,11 @@ public class WifiConfigStore {
                     storeFile.getEncryptionUtil());
             return;
         }
-        final XmlPullParser in = Xml.newPullParser();
+        @StoreFileFormat int format = detectFormat(dataBytes);
+        // Rewrite the file on the next write if it is not in the configured format.
+        storeFile.setFormatMigrationPending(format != storeFile.getFormat());
+        final XmlPullParser in = format == STORE_FILE_FORMAT_BINARY_XML
+                ? new BinaryXmlPullParser() : Xml.newPullParser();
         final ByteArrayInputStream inputStream = new ByteArrayInputStream(dataBytes);
         in.setInput(inputStream, StandardCharsets.UTF_8.name());
 
@@ -778,6 +858,18 @@ public class WifiConfigStore {
         indicateNoDataForStoreDatas(storeDatasNotInvoked, version, storeFile.getEncryptionUtil());
     }
 
+    /**
+     * Detect the format of the provided store file contents.
+     */
+    private static @StoreFileFormat int detectFormat(@NonNull byte[] dataBytes) {
+        byte[] magic = BinaryXmlSerializer.PROTOCOL_MAGIC_VERSION_0;
+        if (dataBytes.length >= magic.length
+                && Arrays.equals(Arrays.copyOf(dataBytes, magic.length), magic)) {
+            return STORE_FILE_FORMAT_BINARY_XML;
+        }
+        return STORE_FILE_FORMAT_XML;
+    }
+
     /**
      * Parse the version from the XML stream.
      * This is used for both the shared and user config store data.
@@ -819,8 +911,14 @@ public class WifiConfigStore {
                 .forEach((storeFile) -> {
                     pw.print("Name: " + storeFile.mFileName);
                     pw.print(", File Id: " + storeFile.mFileId);
-                    pw.println(", Credentials encrypted: "
+                    pw.print(", Credentials encrypted: "
                             + (storeFile.getEncryptionUtil() != null));
+                    pw.print(", Format: " + storeFile.getFormat());
+                    pw.print(", Writes: " + storeFile.getNumWrites());
+                    pw.print(", Skipped writes: " + storeFile.getNumSkippedWrites());
+                    pw.print(", Bytes written: " + storeFile.getNumBytesWritten());
+                    pw.println(", Last write duration ms: "
+                            + storeFile.getLastWriteDurationMs());
                 });
         pw.println("WifiConfigStore - Store Data Begin ----");
         for (StoreData storeData : mStoreDataList) {
@@ -847,6 +945,10 @@ public class WifiConfigStore {
          * File permissions to lock down the file.
          */
         private static final int FILE_MODE = 0600;
+        /**
+         * Algorithm used to detect unchanged file contents.
+         */
+        private static final String DIGEST_ALGORITHM = "SHA-256";
         /**
          * The store file to be written to.
          */
@@ -871,15 +973,52 @@ public class WifiConfigStore {
          * Integrity checking for the store file.
          */
         private final WifiConfigStoreEncryptionUtil mEncryptionUtil;
+        /**
+         * {@link StoreFileFormat} the file is written in.
+         */
+        private final @StoreFileFormat int mFormat;
+        /**
+         * Whether the file was last read in a format different from {@link #mFormat}.
+         */
+        private boolean mFormatMigrationPending;
+        /**
+         * Digest of the contents last read from or written to the file, used to skip rewriting
+         * the file when the serialized data has not changed. Null if unknown.
+         */
+        private byte[] mPersistedDataDigest;
+        /**
+         * Number of writes actually performed to the file.
+         */
+        private int mNumWrites;
+        /**
+         * Number of writes skipped because the data matched the persisted contents.
+         */
+        private int mNumSkippedWrites;
+        /**
+         * Total number of bytes written to the file.
+         */
+        private long mNumBytesWritten;
+        /**
+         * Duration of the last write to the file.
+         */
+        private long mLastWriteDurationMs;
 
         public StoreFile(File file, @StoreFileId int fileId,
                 @NonNull UserHandle userHandle,
                 @Nullable WifiConfigStoreEncryptionUtil encryptionUtil) {
+            this(file, fileId, userHandle, encryptionUtil, STORE_FILE_FORMAT_XML);
+        }
+
+        public StoreFile(File file, @StoreFileId int fileId,
+                @NonNull UserHandle userHandle,
+                @Nullable WifiConfigStoreEncryptionUtil encryptionUtil,
+                @StoreFileFormat int format) {
             mAtomicFile = new AtomicFile(file);
             mFileName = file.getAbsolutePath();
             mFileId = fileId;
             mUserHandle = userHandle;
             mEncryptionUtil = encryptionUtil;
+            mFormat = format;
         }
 
         public String getName() {
@@ -890,6 +1029,29 @@ public class WifiConfigStore {
             return mFileId;
         }
 
+        /**
+         * @return Returns the {@link StoreFileFormat} this store file is written in.
+         */
+        public @StoreFileFormat int getFormat() {
+            return mFormat;
+        }
+
+        /**
+         * @return true if the file was last read in a format different from {@link #getFormat()}
+         * and needs to be rewritten.
+         */
+        public boolean isFormatMigrationPending() {
+            return mFormatMigrationPending;
+        }
+
+        /**
+         * Set whether the file needs to be rewritten in the format returned by
+         * {@link #getFormat()}.
+         */
+        public void setFormatMigrationPending(boolean pending) {
+            mFormatMigrationPending = pending;
+        }
+
         /**
          * @return Returns the encryption util used for this store file.
          */
@@ -910,8 +1072,10 @@ public class WifiConfigStore {
             try {
                 bytes = mAtomicFile.readFully();
             } catch (FileNotFoundException e) {
+                mPersistedDataDigest = null;
                 return null;
             }
+            mPersistedDataDigest = computeDigest(bytes);
             return bytes;
         }
 
@@ -934,6 +1098,16 @@ public class WifiConfigStore {
          */
         public void writeBufferedRawData() throws IOException {
             if (mWriteData == null) return; // No data to write for this file.
+            byte[] digest = computeDigest(mWriteData);
+            if (digest != null && Arrays.equals(digest, mPersistedDataDigest)
+                    && mAtomicFile.getBaseFile().exists()) {
+                // Store data modules which always persist produce the same bytes when nothing
+                // changed, avoid rewriting & syncing the whole file in that case.
+                mNumSkippedWrites++;
+                mWriteData = null;
+                return;
+            }
+            long writeStartTime = SystemClock.elapsedRealtime();
             // Write the data to the atomic file.
             FileOutputStream out = null;
             try {
@@ -945,11 +1119,59 @@ public class WifiConfigStore {
                 if (out != null) {
                     mAtomicFile.failWrite(out);
                 }
+                // Contents on disk are unknown, force the next write.
+                mPersistedDataDigest = null;
                 throw e;
             }
+            mPersistedDataDigest = digest;
+            mFormatMigrationPending = false;
+            mNumWrites++;
+            mNumBytesWritten += mWriteData.length;
+            mLastWriteDurationMs = SystemClock.elapsedRealtime() - writeStartTime;
             // Reset the pending write data after write.
             mWriteData = null;
         }
+
+        /**
+         * Compute the digest of the provided data, or null if the digest could not be computed.
+         */
+        private static @Nullable byte[] computeDigest(@Nullable byte[] data) {
+            if (data == null) return null;
+            try {
+                return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(data);
+            } catch (NoSuchAlgorithmException e) {
+                Log.e(TAG, "Failed to compute store file digest", e);
+                return null;
+            }
+        }
+
+        /**
+         * Number of writes actually performed to the file.
+         */
+        public int getNumWrites() {
+            return mNumWrites;
+        }
+
+        /**
+         * Number of writes skipped because the data matched the persisted contents.
+         */
+        public int getNumSkippedWrites() {
+            return mNumSkippedWrites;
+        }
+
+        /**
+         * Total number of bytes written to the file.
+         */
+        public long getNumBytesWritten() {
+            return mNumBytesWritten;
+        }
+
+        /**
+         * Duration of the last write to the file.
+         */
+        public long getLastWriteDurationMs() {
+            return mLastWriteDurationMs;
+        }
     }
 
     /**
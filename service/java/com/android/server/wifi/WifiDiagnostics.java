@@ -38,7 +38,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.FileDescriptor;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -321,33 +323,49 @@ public class WifiDiagnostics {
         });
     }
 
-    public synchronized void dump(FileDescriptor fd, PrintWriter pw, String[] args) {
-        pw.println("Chipset information :-----------------------------------------------");
-        pw.println("FW Version is: " + mFirmwareVersion);
-        pw.println("Driver Version is: " + mDriverVersion);
-        pw.println("Supported Feature set: " + mSupportedFeatureSet);
+    public void dump(FileDescriptor fd, PrintWriter pw, String[] args) {
+        List<BugReport> alerts = new ArrayList<>();
+        List<BugReport> bugReports = new ArrayList<>();
+        synchronized (this) {
+            pw.println("Chipset information :-----------------------------------------------");
+            pw.println("FW Version is: " + mFirmwareVersion);
+            pw.println("Driver Version is: " + mDriverVersion);
+            pw.println("Supported Feature set: " + mSupportedFeatureSet);
+            for (int i = 0; i < mLastAlerts.size(); i++) {
+                alerts.add(mLastAlerts.get(i));
+            }
+            for (int i = 0; i < mLastBugReports.size(); i++) {
+                bugReports.add(mLastBugReports.get(i));
+            }
+        }
 
-        for (int i = 0; i < mLastAlerts.size(); i++) {
+        // Compressing and encoding the reports is slow for large firmware dumps. The reports are
+        // not modified once captured, so write them without blocking the logging callbacks.
+        int maxBufferedBytes = 0;
+        for (int i = 0; i < alerts.size(); i++) {
             pw.println("--------------------------------------------------------------------");
             pw.println("Alert dump " + i);
-            pw.print(mLastAlerts.get(i));
+            maxBufferedBytes = Math.max(maxBufferedBytes, alerts.get(i).dump(pw));
             pw.println("--------------------------------------------------------------------");
         }
 
-        for (int i = 0; i < mLastBugReports.size(); i++) {
+        for (int i = 0; i < bugReports.size(); i++) {
             pw.println("--------------------------------------------------------------------");
             pw.println("Bug dump " + i);
-            pw.print(mLastBugReports.get(i));
+            maxBufferedBytes = Math.max(maxBufferedBytes, bugReports.get(i).dump(pw));
             pw.println("--------------------------------------------------------------------");
         }
+        pw.println("Max compression buffer size: " + maxBufferedBytes + " bytes");
 
-        pw.println("Last Flush Time: " + mLastDumpTime.toString());
-        pw.println("--------------------------------------------------------------------");
+        synchronized (this) {
+            pw.println("Last Flush Time: " + mLastDumpTime.toString());
+            pw.println("--------------------------------------------------------------------");
 
-        dumpPacketFates(pw);
-        mLastMileLogger.dump(pw);
+            dumpPacketFates(pw);
+            mLastMileLogger.dump(pw);
 
-        pw.println("--------------------------------------------------------------------");
+            pw.println("--------------------------------------------------------------------");
+        }
     }
 
     /**
@@ -390,6 +408,7 @@ public class WifiDiagnostics {
         byte[] alertData;
         ArrayList<String> kernelLogLines;
         ArrayList<String> logcatLines;
+        long captureDurationMs;
 
         void clearVerboseLogs() {
             fwMemoryDump = null;
@@ -397,87 +416,94 @@ public class WifiDiagnostics {
         }
 
         public String toString() {
-            StringBuilder builder = new StringBuilder();
+            StringWriter sw = new StringWriter();
+            PrintWriter pw = new PrintWriter(sw);
+            dump(pw);
+            pw.flush();
+            return sw.toString();
+        }
+
+        /**
+         * Writes the report to |pw| section by section, compressing and encoding the binary
+         * sections incrementally.
+         *
+         * @return the largest number of bytes buffered to compress a single section
+         */
+        int dump(PrintWriter pw) {
+            int maxBufferedBytes = 0;
 
             Calendar c = Calendar.getInstance();
             c.setTimeInMillis(systemTimeMs);
-            builder.append("system time = ")
-                    .append(c.get(Calendar.MONTH)).append("-")
-                    .append(c.get(Calendar.DAY_OF_MONTH)).append(" ")
-                    .append(c.get(Calendar.HOUR_OF_DAY)).append(":")
-                    .append(c.get(Calendar.MINUTE)).append(":")
-                    .append(c.get(Calendar.SECOND)).append(".")
-                    .append(c.get(Calendar.MILLISECOND)).append("\n");
+            pw.print("system time = ");
+            pw.print(c.get(Calendar.MONTH) + "-" + c.get(Calendar.DAY_OF_MONTH) + " "
+                    + c.get(Calendar.HOUR_OF_DAY) + ":" + c.get(Calendar.MINUTE) + ":"
+                    + c.get(Calendar.SECOND) + "." + c.get(Calendar.MILLISECOND) + "\n");
 
             long kernelTimeMs = kernelTimeNanos/(1000*1000);
-            builder.append("kernel time = ").append(kernelTimeMs/1000).append(".").append
-                    (kernelTimeMs%1000).append("\n");
-
-            if (alertData == null)
-                builder.append("reason = ").append(errorCode).append("\n");
-            else {
-                builder.append("errorCode = ").append(errorCode);
-                builder.append("data \n");
-                builder.append(compressToBase64(alertData)).append("\n");
+            pw.print("kernel time = " + kernelTimeMs / 1000 + "." + kernelTimeMs % 1000 + "\n");
+            pw.print("capture duration = " + captureDurationMs + " ms\n");
+
+            if (alertData == null) {
+                pw.print("reason = " + errorCode + "\n");
+            } else {
+                pw.print("errorCode = " + errorCode);
+                pw.print("data \n");
+                maxBufferedBytes = Math.max(maxBufferedBytes,
+                        writeCompressedBase64(pw, alertData));
+                pw.print("\n");
             }
 
             if (kernelLogLines != null) {
-                builder.append("kernel log: \n");
+                pw.print("kernel log: \n");
                 for (int i = 0; i < kernelLogLines.size(); i++) {
-                    builder.append(kernelLogLines.get(i)).append("\n");
+                    pw.print(kernelLogLines.get(i));
+                    pw.print("\n");
                 }
-                builder.append("\n");
+                pw.print("\n");
             }
 
             if (logcatLines != null) {
-                builder.append("system log: \n");
+                pw.print("system log: \n");
                 for (int i = 0; i < logcatLines.size(); i++) {
-                    builder.append(logcatLines.get(i)).append("\n");
+                    pw.print(logcatLines.get(i));
+                    pw.print("\n");
                 }
-                builder.append("\n");
+                pw.print("\n");
             }
 
             for (HashMap.Entry<String, byte[][]> e : ringBuffers.entrySet()) {
-                String ringName = e.getKey();
-                byte[][] buffers = e.getValue();
-                builder.append("ring-buffer = ").append(ringName).append("\n");
-
-                int size = 0;
-                for (int i = 0; i < buffers.length; i++) {
-                    size += buffers[i].length;
-                }
-
-                byte[] buffer = new byte[size];
-                int index = 0;
-                for (int i = 0; i < buffers.length; i++) {
-                    System.arraycopy(buffers[i], 0, buffer, index, buffers[i].length);
-                    index += buffers[i].length;
-                }
-
-                builder.append(compressToBase64(buffer));
-                builder.append("\n");
+                pw.print("ring-buffer = " + e.getKey() + "\n");
+                // The ring chunks are compressed one after another, without first copying them
+                // into a single array.
+                maxBufferedBytes = Math.max(maxBufferedBytes,
+                        writeCompressedBase64(pw, e.getValue()));
+                pw.print("\n");
             }
 
+            // Read the verbose dumps once, clearVerboseLogs() may run concurrently.
+            byte[] fwMemoryDump = this.fwMemoryDump;
             if (fwMemoryDump != null) {
-                builder.append(FIRMWARE_DUMP_SECTION_HEADER);
-                builder.append("\n");
-                builder.append(compressToBase64(fwMemoryDump));
-                builder.append("\n");
+                pw.print(FIRMWARE_DUMP_SECTION_HEADER);
+                pw.print("\n");
+                maxBufferedBytes = Math.max(maxBufferedBytes,
+                        writeCompressedBase64(pw, fwMemoryDump));
+                pw.print("\n");
             }
 
-            if (mDriverStateDump != null) {
-                builder.append(DRIVER_DUMP_SECTION_HEADER);
-                if (StringUtil.isAsciiPrintable(mDriverStateDump)) {
-                    builder.append(" (ascii)\n");
-                    builder.append(new String(mDriverStateDump, Charset.forName("US-ASCII")));
-                    builder.append("\n");
+            byte[] driverStateDump = mDriverStateDump;
+            if (driverStateDump != null) {
+                pw.print(DRIVER_DUMP_SECTION_HEADER);
+                if (StringUtil.isAsciiPrintable(driverStateDump)) {
+                    pw.print(" (ascii)\n");
+                    pw.print(new String(driverStateDump, Charset.forName("US-ASCII")));
+                    pw.print("\n");
                 } else {
-                    builder.append(" (base64)\n");
-                    builder.append(compressToBase64(mDriverStateDump));
+                    pw.print(" (base64)\n");
+                    maxBufferedBytes = Math.max(maxBufferedBytes,
+                            writeCompressedBase64(pw, driverStateDump));
                 }
             }
-
-            return builder.toString();
+            return maxBufferedBytes;
         }
     }
 
@@ -697,6 +723,7 @@ public class WifiDiagnostics {
     }
 
     private BugReport captureBugreport(int errorCode, boolean captureFWDump) {
+        long startTimeMs = mClock.getElapsedSinceBootMillis();
         BugReport report = new BugReport();
         report.errorCode = errorCode;
         report.systemTimeMs = System.currentTimeMillis();
@@ -708,9 +735,11 @@ public class WifiDiagnostics {
                     /* this will push data in mRingBuffers */
                     mWifiNative.getRingBufferData(buffer.name);
                     ByteArrayRingBuffer data = mRingBufferData.get(buffer.name);
+                    // Ring elements are never modified once appended, so the bug report can
+                    // share them instead of copying every chunk.
                     byte[][] buffers = new byte[data.getNumBuffers()][];
                     for (int i = 0; i < data.getNumBuffers(); i++) {
-                        buffers[i] = data.getBuffer(i).clone();
+                        buffers[i] = data.getBuffer(i);
                     }
                     report.ringBuffers.put(buffer.name, buffers);
                 }
@@ -725,6 +754,7 @@ public class WifiDiagnostics {
             report.fwMemoryDump = mWifiNative.getFwMemoryDump();
             report.mDriverStateDump = mWifiNative.getDriverStateDump();
         }
+        report.captureDurationMs = mClock.getElapsedSinceBootMillis() - startTimeMs;
         return report;
     }
 
@@ -738,44 +768,100 @@ public class WifiDiagnostics {
         return mLastAlerts;
     }
 
-    private String compressToBase64(byte[] input) {
-        String result;
-        //compress
+    /**
+     * Writes the concatenation of |chunks| to |pw| in Base64, deflated unless deflating does not
+     * make it smaller. The chunks are deflated one at a time and the encoded text is written in
+     * blocks, so neither the concatenated input nor the whole encoded text is held in memory.
+     *
+     * @return the number of bytes buffered to hold the compressed data
+     */
+    private int writeCompressedBase64(PrintWriter pw, byte[]... chunks) {
+        int inputLength = 0;
+        for (byte[] chunk : chunks) {
+            inputLength += chunk.length;
+        }
+
         Deflater compressor = new Deflater();
         compressor.setLevel(Deflater.BEST_SPEED);
-        compressor.setInput(input);
-        compressor.finish();
-        ByteArrayOutputStream bos = new ByteArrayOutputStream(input.length);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
         final byte[] buf = new byte[1024];
-
-        while (!compressor.finished()) {
-            int count = compressor.deflate(buf);
-            bos.write(buf, 0, count);
-        }
-
         try {
+            for (byte[] chunk : chunks) {
+                compressor.setInput(chunk);
+                while (!compressor.needsInput() && bos.size() < inputLength) {
+                    int count = compressor.deflate(buf);
+                    bos.write(buf, 0, count);
+                }
+            }
+            compressor.finish();
+            while (!compressor.finished() && bos.size() < inputLength) {
+                int count = compressor.deflate(buf);
+                bos.write(buf, 0, count);
+            }
+        } finally {
             compressor.end();
-            bos.close();
-        } catch (IOException e) {
-            mLog.wC("ByteArrayOutputStream close error");
-            result =  android.util.Base64.encodeToString(input, Base64.DEFAULT);
-            return result;
         }
-
-        byte[] compressed = bos.toByteArray();
         if (DBG) {
-            mLog.dump("length is: %").c(compressed == null ? 0 : compressed.length).flush();
+            mLog.dump("length is: %").c(bos.size()).flush();
         }
 
-        //encode
-        result = android.util.Base64.encodeToString(
-                compressed.length < input.length ? compressed : input , Base64.DEFAULT);
+        Base64BlockWriter out = new Base64BlockWriter(pw);
+        if (bos.size() < inputLength) {
+            try {
+                bos.writeTo(out);
+            } catch (IOException e) {
+                // Not thrown by Base64BlockWriter.
+            }
+        } else {
+            for (byte[] chunk : chunks) {
+                out.write(chunk, 0, chunk.length);
+            }
+        }
+        out.finish();
+        return bos.size();
+    }
 
-        if (DBG) {
-            mLog.dump("FwMemoryDump length is: %").c(result.length()).flush();
+    /**
+     * Encodes bytes to Base64 with {@link Base64#DEFAULT} flags in fixed size blocks. Blocks are
+     * a whole number of encoded lines, so the output is identical to encoding all input at once.
+     */
+    private static class Base64BlockWriter extends OutputStream {
+        /** 57 input bytes make up one 76 character line of Base64 output. */
+        private static final int BLOCK_SIZE_BYTES = 57 * 64;
+
+        private final PrintWriter mPw;
+        private final byte[] mBlock = new byte[BLOCK_SIZE_BYTES];
+        private int mBlockLength;
+
+        Base64BlockWriter(PrintWriter pw) {
+            mPw = pw;
         }
 
-        return result;
+        @Override
+        public void write(byte[] data, int offset, int length) {
+            while (length > 0) {
+                int count = Math.min(length, BLOCK_SIZE_BYTES - mBlockLength);
+                System.arraycopy(data, offset, mBlock, mBlockLength, count);
+                mBlockLength += count;
+                offset += count;
+                length -= count;
+                if (mBlockLength == BLOCK_SIZE_BYTES) {
+                    finish();
+                }
+            }
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        void finish() {
+            if (mBlockLength > 0) {
+                mPw.print(Base64.encodeToString(mBlock, 0, mBlockLength, Base64.DEFAULT));
+                mBlockLength = 0;
+            }
+        }
     }
 
     private void readLogcatStreamLinesWithTimeout(
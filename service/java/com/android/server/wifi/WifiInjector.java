@@ -343,7 +343,8 @@ public class WifiInjector {
         mWifiKeyStore = new WifiKeyStore(mContext, mKeyStore, mFrameworkFacade);
         // New config store
         mWifiConfigStore = new WifiConfigStore(mContext, wifiHandler, mClock, mWifiMetrics,
-                WifiConfigStore.createSharedFiles(mFrameworkFacade.isNiapModeOn(mContext)));
+                WifiConfigStore.createSharedFiles(mFrameworkFacade.isNiapModeOn(mContext),
+                        getConfigStoreFileFormat()));
         mWifiCarrierInfoManager = new WifiCarrierInfoManager(makeTelephonyManager(),
                 subscriptionManager, this, mFrameworkFacade, mContext,
                 mWifiConfigStore, wifiHandler, mWifiMetrics, mClock);
@@ -596,6 +597,18 @@ public class WifiInjector {
         return mUserManager;
     }
 
+    /**
+     * Returns the {@link WifiConfigStore.StoreFileFormat} to write the config store files in.
+     */
+    public @WifiConfigStore.StoreFileFormat int getConfigStoreFileFormat() {
+        // Binary XML files cannot be read by module versions older than the binary XML reader,
+        // so writing them also requires the rollout flag.
+        return mContext.getResources().getBoolean(R.bool.config_wifiConfigStoreUseBinaryXml)
+                && mDeviceConfigFacade.isConfigStoreBinaryXmlWriteEnabled()
+                ? WifiConfigStore.STORE_FILE_FORMAT_BINARY_XML
+                : WifiConfigStore.STORE_FILE_FORMAT_XML;
+    }
+
     public WifiMetrics getWifiMetrics() {
         return mWifiMetrics;
     }
@@ -2577,16 +2577,26 @@ public class WifiMetrics {
         if (!isPrimary(ifaceName)) {
             return;
         }
-        mLastPollRssi = wifiInfo.getRssi();
-        mLastPollLinkSpeed = wifiInfo.getLinkSpeed();
-        mLastPollFreq = wifiInfo.getFrequency();
-        incrementRssiPollRssiCount(mLastPollFreq, mLastPollRssi);
-        incrementLinkSpeedCount(mLastPollLinkSpeed, mLastPollRssi);
-        mLastPollRxLinkSpeed = wifiInfo.getRxLinkSpeedMbps();
-        incrementTxLinkSpeedBandCount(mLastPollLinkSpeed, mLastPollFreq);
-        incrementRxLinkSpeedBandCount(mLastPollRxLinkSpeed, mLastPollFreq);
-        mWifiStatusBuilder.setRssi(mLastPollRssi);
-        mWifiStatusBuilder.setNetworkId(wifiInfo.getNetworkId());
+        boolean linkSpeedMetricsEnabled = isLinkSpeedMetricsEnabled();
+        // This runs on every RSSI poll, update all the poll metrics with a single lock acquisition.
+        synchronized (mLock) {
+            mLastPollRssi = wifiInfo.getRssi();
+            mLastPollLinkSpeed = wifiInfo.getLinkSpeed();
+            mLastPollFreq = wifiInfo.getFrequency();
+            mLastPollRxLinkSpeed = wifiInfo.getRxLinkSpeedMbps();
+            incrementRssiPollRssiCountLocked(mLastPollFreq, mLastPollRssi);
+            if (linkSpeedMetricsEnabled) {
+                incrementLinkSpeedCountLocked(mLastPollLinkSpeed, mLastPollRssi);
+                incrementTxLinkSpeedBandCountLocked(mLastPollLinkSpeed, mLastPollFreq);
+                incrementRxLinkSpeedBandCountLocked(mLastPollRxLinkSpeed, mLastPollFreq);
+            }
+            mWifiStatusBuilder.setRssi(mLastPollRssi);
+            mWifiStatusBuilder.setNetworkId(wifiInfo.getNetworkId());
+        }
+    }
+
+    private boolean isLinkSpeedMetricsEnabled() {
+        return mContext.getResources().getBoolean(R.bool.config_wifiLinkSpeedMetricsEnabled);
     }
 
     /**
@@ -2596,18 +2606,26 @@ public class WifiMetrics {
      */
     @VisibleForTesting
     public void incrementRssiPollRssiCount(int frequency, int rssi) {
+        synchronized (mLock) {
+            incrementRssiPollRssiCountLocked(frequency, rssi);
+        }
+    }
+
+    /**
+     * mLock must be held when calling this method.
+     */
+    private void incrementRssiPollRssiCountLocked(int frequency, int rssi) {
         if (!(rssi >= MIN_RSSI_POLL && rssi <= MAX_RSSI_POLL)) {
             return;
         }
-        synchronized (mLock) {
-            if (!mRssiPollCountsMap.containsKey(frequency)) {
-                mRssiPollCountsMap.put(frequency, new SparseIntArray());
-            }
-            SparseIntArray sparseIntArray = mRssiPollCountsMap.get(frequency);
-            int count = sparseIntArray.get(rssi);
-            sparseIntArray.put(rssi, count + 1);
-            maybeIncrementRssiDeltaCount(rssi - mScanResultRssi);
+        SparseIntArray sparseIntArray = mRssiPollCountsMap.get(frequency);
+        if (sparseIntArray == null) {
+            sparseIntArray = new SparseIntArray();
+            mRssiPollCountsMap.put(frequency, sparseIntArray);
         }
+        int count = sparseIntArray.get(rssi);
+        sparseIntArray.put(rssi, count + 1);
+        maybeIncrementRssiDeltaCount(rssi - mScanResultRssi);
     }
 
     /**
@@ -2636,23 +2654,32 @@ public class WifiMetrics {
      */
     @VisibleForTesting
     public void incrementLinkSpeedCount(int linkSpeed, int rssi) {
-        if (!(mContext.getResources().getBoolean(R.bool.config_wifiLinkSpeedMetricsEnabled)
-                && linkSpeed >= MIN_LINK_SPEED_MBPS
+        if (!isLinkSpeedMetricsEnabled()) {
+            return;
+        }
+        synchronized (mLock) {
+            incrementLinkSpeedCountLocked(linkSpeed, rssi);
+        }
+    }
+
+    /**
+     * mLock must be held when calling this method.
+     */
+    private void incrementLinkSpeedCountLocked(int linkSpeed, int rssi) {
+        if (!(linkSpeed >= MIN_LINK_SPEED_MBPS
                 && rssi >= MIN_RSSI_POLL
                 && rssi <= MAX_RSSI_POLL)) {
             return;
         }
-        synchronized (mLock) {
-            LinkSpeedCount linkSpeedCount = mLinkSpeedCounts.get(linkSpeed);
-            if (linkSpeedCount == null) {
-                linkSpeedCount = new LinkSpeedCount();
-                linkSpeedCount.linkSpeedMbps = linkSpeed;
-                mLinkSpeedCounts.put(linkSpeed, linkSpeedCount);
-            }
-            linkSpeedCount.count++;
-            linkSpeedCount.rssiSumDbm += Math.abs(rssi);
-            linkSpeedCount.rssiSumOfSquaresDbmSq += rssi * rssi;
+        LinkSpeedCount linkSpeedCount = mLinkSpeedCounts.get(linkSpeed);
+        if (linkSpeedCount == null) {
+            linkSpeedCount = new LinkSpeedCount();
+            linkSpeedCount.linkSpeedMbps = linkSpeed;
+            mLinkSpeedCounts.put(linkSpeed, linkSpeedCount);
         }
+        linkSpeedCount.count++;
+        linkSpeedCount.rssiSumDbm += Math.abs(rssi);
+        linkSpeedCount.rssiSumOfSquaresDbmSq += rssi * rssi;
     }
 
     /**
@@ -2663,26 +2690,35 @@ public class WifiMetrics {
      */
     @VisibleForTesting
     public void incrementTxLinkSpeedBandCount(int txLinkSpeed, int frequency) {
-        if (!(mContext.getResources().getBoolean(R.bool.config_wifiLinkSpeedMetricsEnabled)
-                && txLinkSpeed >= MIN_LINK_SPEED_MBPS)) {
+        if (!isLinkSpeedMetricsEnabled()) {
             return;
         }
         synchronized (mLock) {
-            if (ScanResult.is24GHz(frequency)) {
-                mTxLinkSpeedCount2g.increment(txLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_LOW_END_FREQ) {
-                mTxLinkSpeedCount5gLow.increment(txLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_MID_END_FREQ) {
-                mTxLinkSpeedCount5gMid.increment(txLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_HIGH_END_FREQ) {
-                mTxLinkSpeedCount5gHigh.increment(txLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_LOW_END_FREQ) {
-                mTxLinkSpeedCount6gLow.increment(txLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_MID_END_FREQ) {
-                mTxLinkSpeedCount6gMid.increment(txLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_HIGH_END_FREQ) {
-                mTxLinkSpeedCount6gHigh.increment(txLinkSpeed);
-            }
+            incrementTxLinkSpeedBandCountLocked(txLinkSpeed, frequency);
+        }
+    }
+
+    /**
+     * mLock must be held when calling this method.
+     */
+    private void incrementTxLinkSpeedBandCountLocked(int txLinkSpeed, int frequency) {
+        if (txLinkSpeed < MIN_LINK_SPEED_MBPS) {
+            return;
+        }
+        if (ScanResult.is24GHz(frequency)) {
+            mTxLinkSpeedCount2g.increment(txLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_LOW_END_FREQ) {
+            mTxLinkSpeedCount5gLow.increment(txLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_MID_END_FREQ) {
+            mTxLinkSpeedCount5gMid.increment(txLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_HIGH_END_FREQ) {
+            mTxLinkSpeedCount5gHigh.increment(txLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_LOW_END_FREQ) {
+            mTxLinkSpeedCount6gLow.increment(txLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_MID_END_FREQ) {
+            mTxLinkSpeedCount6gMid.increment(txLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_HIGH_END_FREQ) {
+            mTxLinkSpeedCount6gHigh.increment(txLinkSpeed);
         }
     }
 
@@ -2694,26 +2730,35 @@ public class WifiMetrics {
      */
     @VisibleForTesting
     public void incrementRxLinkSpeedBandCount(int rxLinkSpeed, int frequency) {
-        if (!(mContext.getResources().getBoolean(R.bool.config_wifiLinkSpeedMetricsEnabled)
-                && rxLinkSpeed >= MIN_LINK_SPEED_MBPS)) {
+        if (!isLinkSpeedMetricsEnabled()) {
             return;
         }
         synchronized (mLock) {
-            if (ScanResult.is24GHz(frequency)) {
-                mRxLinkSpeedCount2g.increment(rxLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_LOW_END_FREQ) {
-                mRxLinkSpeedCount5gLow.increment(rxLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_MID_END_FREQ) {
-                mRxLinkSpeedCount5gMid.increment(rxLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_HIGH_END_FREQ) {
-                mRxLinkSpeedCount5gHigh.increment(rxLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_LOW_END_FREQ) {
-                mRxLinkSpeedCount6gLow.increment(rxLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_MID_END_FREQ) {
-                mRxLinkSpeedCount6gMid.increment(rxLinkSpeed);
-            } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_HIGH_END_FREQ) {
-                mRxLinkSpeedCount6gHigh.increment(rxLinkSpeed);
-            }
+            incrementRxLinkSpeedBandCountLocked(rxLinkSpeed, frequency);
+        }
+    }
+
+    /**
+     * mLock must be held when calling this method.
+     */
+    private void incrementRxLinkSpeedBandCountLocked(int rxLinkSpeed, int frequency) {
+        if (rxLinkSpeed < MIN_LINK_SPEED_MBPS) {
+            return;
+        }
+        if (ScanResult.is24GHz(frequency)) {
+            mRxLinkSpeedCount2g.increment(rxLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_LOW_END_FREQ) {
+            mRxLinkSpeedCount5gLow.increment(rxLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_MID_END_FREQ) {
+            mRxLinkSpeedCount5gMid.increment(rxLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_5_GHZ_HIGH_END_FREQ) {
+            mRxLinkSpeedCount5gHigh.increment(rxLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_LOW_END_FREQ) {
+            mRxLinkSpeedCount6gLow.increment(rxLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_MID_END_FREQ) {
+            mRxLinkSpeedCount6gMid.increment(rxLinkSpeed);
+        } else if (frequency <= KnownBandsChannelHelper.BAND_6_GHZ_HIGH_END_FREQ) {
+            mRxLinkSpeedCount6gHigh.increment(rxLinkSpeed);
         }
     }
 
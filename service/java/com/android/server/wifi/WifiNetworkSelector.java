@@ -54,6 +54,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -117,6 +118,8 @@ public class WifiNetworkSelector {
     private final ScanRequestProxy mScanRequestProxy;
 
     private final Map<String, WifiCandidates.CandidateScorer> mCandidateScorers = new ArrayMap<>();
+    // Throughput predictions made during the current getCandidatesFromScan() call
+    private final Map<ScanDetail, Integer> mPredictedThroughputCache = new HashMap<>();
     private boolean mIsEnhancedOpenSupportedInitialized = false;
     private boolean mIsEnhancedOpenSupported;
 
@@ -631,7 +634,8 @@ public class WifiNetworkSelector {
             }
 
             // Skip saved networks
-            if (mWifiConfigManager.getSavedNetworkForScanDetailAndCache(scanDetail) != null) {
+            if (mWifiConfigManager.getInternalSavedNetworkForScanDetailAndCache(scanDetail)
+                    != null) {
                 continue;
             }
 
@@ -939,6 +943,7 @@ public class WifiNetworkSelector {
         }
 
         WifiCandidates wifiCandidates = new WifiCandidates(mWifiScoreCard, mContext);
+        mPredictedThroughputCache.clear();
         for (ClientModeManagerState cmmState : cmmStates) {
             // Always get the current BSSID from WifiInfo in case that firmware initiated
             // roaming happened.
@@ -1014,6 +1019,7 @@ public class WifiNetworkSelector {
                         }
                     });
         }
+        mPredictedThroughputCache.clear();
         if (mConnectableNetworks.size() != wifiCandidates.size()) {
             localLog("Connectable: " + mConnectableNetworks.size()
                     + " Candidates: " + wifiCandidates.size());
@@ -1378,7 +1384,19 @@ public class WifiNetworkSelector {
         return ans;
     }
 
+    /**
+     * Predicts the throughput for a scan detail, reusing the prediction if the same scan detail
+     * was already nominated in this round of candidate collection.
+     */
     private int predictThroughput(@NonNull ScanDetail scanDetail) {
+        Integer cached = mPredictedThroughputCache.get(scanDetail);
+        if (cached != null) return cached;
+        int predictedTputMbps = predictThroughputUncached(scanDetail);
+        mPredictedThroughputCache.put(scanDetail, predictedTputMbps);
+        return predictedTputMbps;
+    }
+
+    private int predictThroughputUncached(@NonNull ScanDetail scanDetail) {
         if (scanDetail.getScanResult() == null || scanDetail.getNetworkDetail() == null) {
             return 0;
         }
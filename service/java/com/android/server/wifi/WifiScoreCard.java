@@ -83,6 +83,7 @@ import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -2112,9 +2113,12 @@ public class WifiScoreCard {
     // for instance when we are not associated.
     private final PerBssid mPlaceholderPerBssid;
 
-    private final Map<MacAddress, PerBssid> mApForBssid = new ArrayMap<>();
+    private final Map<MacAddress, PerBssid> mApForBssid = new HashMap<>();
     private int mApForBssidTargetSize = TARGET_IN_MEMORY_ENTRIES;
     private int mApForBssidReferenced = 0;
+    private int mApForBssidHits = 0;
+    private int mApForBssidMisses = 0;
+    private int mApForBssidEvictions = 0;
 
     // TODO should be private, but WifiCandidates needs it
     @NonNull PerBssid lookupBssid(String ssid, String bssid) {
@@ -2132,6 +2136,7 @@ public class WifiScoreCard {
         }
         PerBssid ans = mApForBssid.get(mac);
         if (ans == null || !ans.ssid.equals(ssid)) {
+            mApForBssidMisses++;
             ans = new PerBssid(ssid, mac);
             PerBssid old = mApForBssid.put(mac, ans);
             if (old != null) {
@@ -2139,6 +2144,8 @@ public class WifiScoreCard {
                 if (old.referenced) mApForBssidReferenced--;
             }
             requestReadBssid(ans);
+        } else {
+            mApForBssidHits++;
         }
         if (!ans.referenced) {
             ans.referenced = true;
@@ -2166,7 +2173,11 @@ public class WifiScoreCard {
     // Returned by lookupNetwork when the network is not available,
     // for instance when we are not associated.
     private final PerNetwork mPlaceholderPerNetwork;
-    private final Map<String, PerNetwork> mApForNetwork = new ArrayMap<>();
+    // Not evicted: saved networks are looked up in bulk (partial scan channels, PNO, health
+    // monitor), and the frequency timestamps are only kept in memory.
+    private final Map<String, PerNetwork> mApForNetwork = new HashMap<>();
+    private int mApForNetworkHits = 0;
+    private int mApForNetworkMisses = 0;
     @NonNull PerNetwork lookupNetwork(String ssid) {
         if (ssid == null || WifiManager.UNKNOWN_SSID.equals(ssid)) {
             return mPlaceholderPerNetwork;
@@ -2174,13 +2185,29 @@ public class WifiScoreCard {
 
         PerNetwork ans = mApForNetwork.get(ssid);
         if (ans == null) {
+            mApForNetworkMisses++;
             ans = new PerNetwork(ssid);
             mApForNetwork.put(ssid, ans);
             requestReadNetwork(ans);
+        } else {
+            mApForNetworkHits++;
         }
         return ans;
     }
 
+    /**
+     * Sets the number of referenced per-BSSID entries that triggers an eviction round.
+     *
+     * The in-memory entry count varies between the target and twice the target.
+     */
+    @VisibleForTesting
+    public void setBssidInMemoryTargetSize(int targetSize) {
+        if (targetSize <= 0) {
+            throw new IllegalArgumentException("Target size must be positive");
+        }
+        mApForBssidTargetSize = targetSize;
+    }
+
     /**
      * Remove network from cache and memory store
      * @param ssid is the network SSID
@@ -2190,7 +2217,14 @@ public class WifiScoreCard {
             return;
         }
         mApForNetwork.remove(ssid);
-        mApForBssid.entrySet().removeIf(entry -> ssid.equals(entry.getValue().ssid));
+        Iterator<Map.Entry<MacAddress, PerBssid>> it = mApForBssid.entrySet().iterator();
+        while (it.hasNext()) {
+            PerBssid perBssid = it.next().getValue();
+            if (ssid.equals(perBssid.ssid)) {
+                if (perBssid.referenced) mApForBssidReferenced--;
+                it.remove();
+            }
+        }
         if (mMemoryStore == null) return;
         mMemoryStore.removeCluster(groupHintFromSsid(ssid));
     }
@@ -2279,6 +2313,7 @@ public class WifiScoreCard {
                     perBssid.referenced = false;
                 } else {
                     it.remove();
+                    mApForBssidEvictions++;
                     if (mVerboseLoggingEnabled) Log.v(TAG, "Evict " + perBssid.id);
                 }
             }
@@ -2583,6 +2618,7 @@ public class WifiScoreCard {
      */
     public void clear() {
         mApForBssid.clear();
+        mApForBssidReferenced = 0;
         mApForNetwork.clear();
         resetAllConnectionStatesInternal();
     }
@@ -2656,6 +2692,11 @@ public class WifiScoreCard {
                 .map(entry ->
                         "{iface=" + entry.getKey() + ",ssid=" + entry.getValue().ssidCurr + "}")
                 .collect(Collectors.joining(",")));
+        pw.println("BSSID entries: " + mApForBssid.size() + " (target " + mApForBssidTargetSize
+                + ") hits: " + mApForBssidHits + " misses: " + mApForBssidMisses
+                + " evictions: " + mApForBssidEvictions);
+        pw.println("Network entries: " + mApForNetwork.size() + " hits: " + mApForNetworkHits
+                + " misses: " + mApForNetworkMisses);
         try {
             mLocalLog.dump(fd, pw, args);
         } catch (Exception e) {
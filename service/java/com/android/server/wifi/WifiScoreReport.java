@@ -43,8 +43,9 @@ import com.android.wifi.resources.R;
 
 import java.io.FileDescriptor;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.LinkedList;
+import java.util.List;
 
 /**
  * Class used to calculate scores for connected wifi networks and report it to the associated
@@ -53,7 +54,8 @@ import java.util.LinkedList;
 public class WifiScoreReport {
     private static final String TAG = "WifiScoreReport";
 
-    private static final int DUMPSYS_ENTRY_COUNT_LIMIT = 3600; // 3 hours on 3 second poll
+    @VisibleForTesting
+    static final int DUMPSYS_ENTRY_COUNT_LIMIT = 3600; // 3 hours on 3 second poll
 
     private boolean mVerboseLoggingEnabled = false;
     private static final long FIRST_REASONABLE_WALL_CLOCK = 1490000000000L; // mid-December 2016
@@ -792,9 +794,10 @@ public class WifiScoreReport {
     /**
      * Data for dumpsys
      *
-     * These are stored as csv formatted lines
+     * These are stored as raw samples and formatted as csv lines only when dumped
      */
-    private LinkedList<String> mLinkMetricsHistory = new LinkedList<String>();
+    private final LinkMetricsHistory mLinkMetricsHistory =
+            new LinkMetricsHistory(DUMPSYS_ENTRY_COUNT_LIMIT);
 
     /**
      * Data logging for dumpsys
@@ -807,21 +810,74 @@ public class WifiScoreReport {
             filteredRssi = mVelocityBasedConnectedScore.getFilteredRssi();
             rssiThreshold = mVelocityBasedConnectedScore.getAdjustedRssiThreshold();
         }
-        int freq = mWifiInfo.getFrequency();
-        int txLinkSpeed = mWifiInfo.getLinkSpeed();
-        int rxLinkSpeed = mWifiInfo.getRxLinkSpeedMbps();
         WifiScoreCard.PerNetwork network = mWifiScoreCard.lookupNetwork(mWifiInfo.getSSID());
-        int txThroughputMbps = network.getTxLinkBandwidthKbps() / 1000;
-        int rxThroughputMbps = network.getRxLinkBandwidthKbps() / 1000;
-        double txSuccessRate = mWifiInfo.getSuccessfulTxPacketsPerSecond();
-        double txRetriesRate = mWifiInfo.getRetriedTxPacketsPerSecond();
-        double txBadRate = mWifiInfo.getLostTxPacketsPerSecond();
-        double rxSuccessRate = mWifiInfo.getSuccessfulRxPacketsPerSecond();
-        long totalBeaconRx = mWifiMetrics.getTotalBeaconRxCount();
-        String s;
-        try {
-            Calendar c = Calendar.getInstance();
-            c.setTimeInMillis(now);
+        synchronized (mLinkMetricsHistory) {
+            LinkMetricsSample sample = mLinkMetricsHistory.nextSample();
+            sample.timeMillis = now;
+            sample.sessionNumber = mSessionNumber;
+            sample.netId = netId;
+            sample.rssi = mWifiInfo.getRssi();
+            sample.filteredRssi = filteredRssi;
+            sample.rssiThreshold = rssiThreshold;
+            sample.frequency = mWifiInfo.getFrequency();
+            sample.txLinkSpeed = mWifiInfo.getLinkSpeed();
+            sample.rxLinkSpeed = mWifiInfo.getRxLinkSpeedMbps();
+            sample.txThroughputMbps = network.getTxLinkBandwidthKbps() / 1000;
+            sample.rxThroughputMbps = network.getRxLinkBandwidthKbps() / 1000;
+            sample.totalBeaconRx = mWifiMetrics.getTotalBeaconRxCount();
+            sample.txSuccessRate = mWifiInfo.getSuccessfulTxPacketsPerSecond();
+            sample.txRetriesRate = mWifiInfo.getRetriedTxPacketsPerSecond();
+            sample.txBadRate = mWifiInfo.getLostTxPacketsPerSecond();
+            sample.rxSuccessRate = mWifiInfo.getSuccessfulRxPacketsPerSecond();
+            sample.nudYes = mNudYes;
+            sample.nudCount = mNudCount;
+            sample.s1 = s1;
+            sample.s2 = s2;
+            sample.score = score;
+        }
+    }
+
+    /**
+     * One link metrics sample. Instances are owned by a LinkMetricsHistory and overwritten in
+     * place once the history is full.
+     */
+    private static class LinkMetricsSample implements Cloneable {
+        long timeMillis;
+        int sessionNumber;
+        int netId;
+        int rssi;
+        double filteredRssi;
+        double rssiThreshold;
+        int frequency;
+        int txLinkSpeed;
+        int rxLinkSpeed;
+        int txThroughputMbps;
+        int rxThroughputMbps;
+        long totalBeaconRx;
+        double txSuccessRate;
+        double txRetriesRate;
+        double txBadRate;
+        double rxSuccessRate;
+        int nudYes;
+        int nudCount;
+        int s1;
+        int s2;
+        int score;
+
+        @Override
+        public LinkMetricsSample clone() {
+            try {
+                return (LinkMetricsSample) super.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        /**
+         * Formats the sample as a csv line, using |c| to break down the timestamp.
+         */
+        String toCsvLine(Calendar c) {
+            c.setTimeInMillis(timeMillis);
             // Date format: "%tm-%td %tH:%tM:%tS.%tL"
             String timestamp = new StringBuilder().append(c.get(Calendar.MONTH)).append("-")
                     .append(c.get(Calendar.DAY_OF_MONTH)).append(" ")
@@ -829,25 +885,59 @@ public class WifiScoreReport {
                     .append(c.get(Calendar.MINUTE)).append(":")
                     .append(c.get(Calendar.SECOND)).append(".")
                     .append(c.get(Calendar.MILLISECOND)).toString();
-            s = timestamp + "," + mSessionNumber + "," + netId + "," + mWifiInfo.getRssi()
+            return timestamp + "," + sessionNumber + "," + netId + "," + rssi
                     + "," + Math.round(filteredRssi * 100) / 100 + "," + rssiThreshold
-                    + "," + freq + "," + txLinkSpeed
+                    + "," + frequency + "," + txLinkSpeed
                     + "," + rxLinkSpeed + "," + txThroughputMbps
                     + "," + rxThroughputMbps + "," + totalBeaconRx
                     + "," + Math.round(txSuccessRate * 100) / 100
                     + "," + Math.round(txRetriesRate * 100) / 100
                     + "," + Math.round(txBadRate * 100) / 100
                     + "," + Math.round(rxSuccessRate * 100) / 100
-                    + "," + mNudYes + "," + mNudCount + "," + s1 + "," + s2 + "," + score;
-        } catch (Exception e) {
-            Log.e(TAG, "format problem", e);
-            return;
+                    + "," + nudYes + "," + nudCount + "," + s1 + "," + s2 + "," + score;
         }
-        synchronized (mLinkMetricsHistory) {
-            mLinkMetricsHistory.add(s);
-            while (mLinkMetricsHistory.size() > DUMPSYS_ENTRY_COUNT_LIMIT) {
-                mLinkMetricsHistory.removeFirst();
+    }
+
+    /**
+     * Bounded history of link metrics samples, used as a ring of up to |capacity| entries.
+     * Sample objects are created as the history fills up and then reused, so recording a sample
+     * does not allocate once the history is full.
+     */
+    private static class LinkMetricsHistory {
+        private final int mCapacity;
+        private final ArrayList<LinkMetricsSample> mSamples = new ArrayList<>();
+        private int mStart = 0;
+
+        LinkMetricsHistory(int capacity) {
+            mCapacity = capacity;
+        }
+
+        /**
+         * Returns the sample to overwrite with new data, dropping the oldest sample if the
+         * history is full.
+         */
+        LinkMetricsSample nextSample() {
+            if (mSamples.size() < mCapacity) {
+                LinkMetricsSample sample = new LinkMetricsSample();
+                mSamples.add(sample);
+                return sample;
             }
+            LinkMetricsSample sample = mSamples.get(mStart);
+            mStart = (mStart + 1) % mCapacity;
+            return sample;
+        }
+
+        /**
+         * Returns a copy of the samples, oldest first, so that they can be formatted without
+         * holding the lock.
+         */
+        List<LinkMetricsSample> copySamples() {
+            int size = mSamples.size();
+            List<LinkMetricsSample> samples = new ArrayList<>(size);
+            for (int k = 0; k < size; k++) {
+                samples.add(mSamples.get((mStart + k) % size).clone());
+            }
+            return samples;
         }
     }
 
@@ -863,9 +953,19 @@ public class WifiScoreReport {
      * @param args unused
      */
     public void dump(FileDescriptor fd, PrintWriter pw, String[] args) {
-        LinkedList<String> history;
+        List<LinkMetricsSample> samples;
         synchronized (mLinkMetricsHistory) {
-            history = new LinkedList<>(mLinkMetricsHistory);
+            samples = mLinkMetricsHistory.copySamples();
+        }
+        // Formatting is slow, so it is done outside the lock taken by logLinkMetrics().
+        List<String> history = new ArrayList<>(samples.size());
+        Calendar c = Calendar.getInstance();
+        for (LinkMetricsSample sample : samples) {
+            try {
+                history.add(sample.toCsvLine(c));
+            } catch (Exception e) {
+                Log.e(TAG, "format problem", e);
+            }
         }
         pw.println("time,session,netid,rssi,filtered_rssi,rssi_threshold,freq,txLinkSpeed,"
                 + "rxLinkSpeed,txTput,rxTput,bcnCnt,tx_good,tx_retry,tx_bad,rx_pps,nudrq,nuds,"
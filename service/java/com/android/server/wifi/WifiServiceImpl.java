@@ -4023,7 +4023,8 @@ public class WifiServiceImpl extends BaseWifiService {
      * @return the list of results
      */
     @Override
-    public List<ScanResult> getScanResults(String callingPackage, String callingFeatureId) {
+    public ParceledListSlice<ScanResult> getScanResults(String callingPackage,
+            String callingFeatureId) {
         enforceAccessPermission();
         int uid = Binder.getCallingUid();
         long ident = Binder.clearCallingIdentity();
@@ -4033,13 +4034,15 @@ public class WifiServiceImpl extends BaseWifiService {
         try {
             mWifiPermissionsUtil.enforceCanAccessScanResults(callingPackage, callingFeatureId,
                     uid, null);
-            List<ScanResult> scanResults = mWifiThreadRunner.call(
-                    mScanRequestProxy::getScanResults, Collections.emptyList());
-            return scanResults;
+            // The scan results are published as a read-only snapshot, so there is no need to
+            // wait for the Wifi thread, which may be busy with network selection or HAL calls.
+            // Sent as a slice, since the results of a dense venue scan can exceed the binder
+            // transaction limit.
+            return new ParceledListSlice<>(mScanRequestProxy.getScanResults());
         } catch (SecurityException e) {
             Log.w(TAG, "Permission violation - getScanResults not allowed for uid="
                     + uid + ", packageName=" + callingPackage + ", reason=" + e);
-            return new ArrayList<>();
+            return new ParceledListSlice<>(new ArrayList<>());
         } finally {
             Binder.restoreCallingIdentity(ident);
         }
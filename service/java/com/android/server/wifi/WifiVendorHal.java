@@ -93,9 +93,10 @@ import com.android.wifi.resources.R;
 import com.google.errorprone.annotations.CompileTimeConstant;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -272,8 +273,9 @@ public class WifiVendorHal {
 
     // Vendor HAL HIDL interface objects.
     private IWifiChip mIWifiChip;
-    private HashMap<String, IWifiStaIface> mIWifiStaIfaces = new HashMap<>();
-    private HashMap<String, IWifiApIface> mIWifiApIfaces = new HashMap<>();
+    // Only modified while holding sLock, but read without it by getStaIface()/getApIface().
+    private final Map<String, IWifiStaIface> mIWifiStaIfaces = new ConcurrentHashMap<>();
+    private final Map<String, IWifiApIface> mIWifiApIfaces = new ConcurrentHashMap<>();
     private static Context sContext;
     private final HalDeviceManager mHalDeviceManager;
     private final WifiGlobals mWifiGlobals;
@@ -305,6 +307,21 @@ public class WifiVendorHal {
 
     public static final Object sLock = new Object();
 
+    /**
+     * Locks serializing the HAL calls made on one interface that do not need the chip level
+     * {@link #sLock}, so that they are not stalled by slow HAL calls on other interfaces.
+     *
+     * Lock order: an interface lock may be acquired while holding {@link #sLock}, but
+     * {@link #sLock} must never be acquired while holding an interface lock. Look up the HAL
+     * interface object before taking its lock. The lock of a STA interface is dropped when the
+     * interface is destroyed.
+     */
+    private final Map<String, Object> mIfaceLocks = new ConcurrentHashMap<>();
+
+    private Object getIfaceLock(@NonNull String ifaceName) {
+        return mIfaceLocks.computeIfAbsent(ifaceName, k -> new Object());
+    }
+
     private void handleRemoteException(RemoteException e) {
         String methodName = niceMethodName(Thread.currentThread().getStackTrace(), 3);
         mVerboseLog.err("% RemoteException in HIDL call %").c(methodName).c(e.toString()).flush();
@@ -407,9 +424,8 @@ public class WifiVendorHal {
 
     /** Helper method to lookup the corresponding STA iface object using iface name. */
     private IWifiStaIface getStaIface(@NonNull String ifaceName) {
-        synchronized (sLock) {
-            return mIWifiStaIfaces.get(ifaceName);
-        }
+        if (ifaceName == null) return null;
+        return mIWifiStaIfaces.get(ifaceName);
     }
 
     private class StaInterfaceDestroyedListenerInternal implements InterfaceDestroyedListener {
@@ -424,6 +440,7 @@ public class WifiVendorHal {
             synchronized (sLock) {
                 mIWifiStaIfaces.remove(ifaceName);
             }
+            mIfaceLocks.remove(ifaceName);
             if (mExternalListener != null) {
                 mExternalListener.onDestroyed(ifaceName);
             }
@@ -507,9 +524,8 @@ public class WifiVendorHal {
 
     /** Helper method to lookup the corresponding AP iface object using iface name. */
     private IWifiApIface getApIface(@NonNull String ifaceName) {
-        synchronized (sLock) {
-            return mIWifiApIfaces.get(ifaceName);
-        }
+        if (ifaceName == null) return null;
+        return mIWifiApIfaces.get(ifaceName);
     }
 
     private class ApInterfaceDestroyedListenerInternal implements InterfaceDestroyedListener {
@@ -1122,10 +1138,10 @@ public class WifiVendorHal {
             public StaLinkLayerStats value = null;
         }
         AnswerBox answer = new AnswerBox();
-        synchronized (sLock) {
+        IWifiStaIface iface = getStaIface(ifaceName);
+        if (iface == null) return null;
+        synchronized (getIfaceLock(ifaceName)) {
             try {
-                IWifiStaIface iface = getStaIface(ifaceName);
-                if (iface == null) return null;
                 iface.getLinkLayerStats((status, stats) -> {
                     if (!ok(status)) return;
                     answer.value = stats;
@@ -1144,11 +1160,11 @@ public class WifiVendorHal {
             public android.hardware.wifi.V1_3.StaLinkLayerStats value = null;
         }
         AnswerBox answer = new AnswerBox();
-        synchronized (sLock) {
+        android.hardware.wifi.V1_3.IWifiStaIface iface =
+                getWifiStaIfaceForV1_3Mockable(ifaceName);
+        if (iface == null) return null;
+        synchronized (getIfaceLock(ifaceName)) {
             try {
-                android.hardware.wifi.V1_3.IWifiStaIface iface =
-                        getWifiStaIfaceForV1_3Mockable(ifaceName);
-                if (iface == null) return null;
                 iface.getLinkLayerStats_1_3((status, stats) -> {
                     if (!ok(status)) return;
                     answer.value = stats;
@@ -1167,11 +1183,11 @@ public class WifiVendorHal {
             public android.hardware.wifi.V1_5.StaLinkLayerStats value = null;
         }
         AnswerBox answer = new AnswerBox();
-        synchronized (sLock) {
+        android.hardware.wifi.V1_5.IWifiStaIface iface =
+                getWifiStaIfaceForV1_5Mockable(ifaceName);
+        if (iface == null) return null;
+        synchronized (getIfaceLock(ifaceName)) {
             try {
-                android.hardware.wifi.V1_5.IWifiStaIface iface =
-                        getWifiStaIfaceForV1_5Mockable(ifaceName);
-                if (iface == null) return null;
                 iface.getLinkLayerStats_1_5((status, stats) -> {
                     if (!ok(status)) return;
                     answer.value = stats;
@@ -1190,11 +1206,11 @@ public class WifiVendorHal {
             public android.hardware.wifi.V1_6.StaLinkLayerStats value = null;
         }
         AnswerBox answer = new AnswerBox();
-        synchronized (sLock) {
+        android.hardware.wifi.V1_6.IWifiStaIface iface =
+                getWifiStaIfaceForV1_6Mockable(ifaceName);
+        if (iface == null) return null;
+        synchronized (getIfaceLock(ifaceName)) {
             try {
-                android.hardware.wifi.V1_6.IWifiStaIface iface =
-                        getWifiStaIfaceForV1_6Mockable(ifaceName);
-                if (iface == null) return null;
                 iface.getLinkLayerStats_1_6((status, stats) -> {
                     if (!ok(status)) return;
                     answer.value = stats;
@@ -1472,11 +1488,9 @@ public class WifiVendorHal {
      * This method is for V1_3
      */
     private static void aggregateFrameworkRadioStatsFromHidl_1_3(int radioIndex,
-            WifiLinkLayerStats stats,
+            boolean aggregateAllRadios, WifiLinkLayerStats stats,
             android.hardware.wifi.V1_3.StaLinkLayerRadioStats hidlRadioStats) {
-        if (!sContext.getResources()
-                .getBoolean(R.bool.config_wifiLinkLayerAllRadiosStatsAggregationEnabled)
-                && radioIndex > 0) {
+        if (!aggregateAllRadios && radioIndex > 0) {
             return;
         }
         // Aggregate the radio stats from all the radios
@@ -1521,11 +1535,9 @@ public class WifiVendorHal {
      * This method is for V1_6
      */
     private static void aggregateFrameworkRadioStatsFromHidl_1_6(int radioIndex,
-            WifiLinkLayerStats stats,
+            boolean aggregateAllRadios, WifiLinkLayerStats stats,
             android.hardware.wifi.V1_6.StaLinkLayerRadioStats hidlRadioStats) {
-        if (!sContext.getResources()
-                .getBoolean(R.bool.config_wifiLinkLayerAllRadiosStatsAggregationEnabled)
-                && radioIndex > 0) {
+        if (!aggregateAllRadios && radioIndex > 0) {
             return;
         }
         // Aggregate the radio stats from all the radios
@@ -1564,12 +1576,23 @@ public class WifiVendorHal {
         stats.numRadios++;
     }
 
+    /**
+     * Reads the radio stats aggregation config, once per link layer stats conversion rather than
+     * once per radio.
+     */
+    private static boolean isAllRadiosStatsAggregationEnabled() {
+        return sContext.getResources()
+                .getBoolean(R.bool.config_wifiLinkLayerAllRadiosStatsAggregationEnabled);
+    }
+
     private static void setRadioStats_1_3(WifiLinkLayerStats stats,
             List<android.hardware.wifi.V1_3.StaLinkLayerRadioStats> radios) {
         if (radios == null) return;
+        boolean aggregateAllRadios = isAllRadiosStatsAggregationEnabled();
         int radioIndex = 0;
         for (android.hardware.wifi.V1_3.StaLinkLayerRadioStats radioStats : radios) {
-            aggregateFrameworkRadioStatsFromHidl_1_3(radioIndex, stats, radioStats);
+            aggregateFrameworkRadioStatsFromHidl_1_3(radioIndex, aggregateAllRadios, stats,
+                    radioStats);
             radioIndex++;
         }
     }
@@ -1577,13 +1600,15 @@ public class WifiVendorHal {
     private static void setRadioStats_1_5(WifiLinkLayerStats stats,
             List<android.hardware.wifi.V1_5.StaLinkLayerRadioStats> radios) {
         if (radios == null) return;
+        boolean aggregateAllRadios = isAllRadiosStatsAggregationEnabled();
         int radioIndex = 0;
         stats.radioStats = new RadioStat[radios.size()];
         for (android.hardware.wifi.V1_5.StaLinkLayerRadioStats radioStats : radios) {
             RadioStat radio = new RadioStat();
             setFrameworkPerRadioStatsFromHidl_1_3(radioStats.radioId, radio, radioStats.V1_3);
             stats.radioStats[radioIndex] = radio;
-            aggregateFrameworkRadioStatsFromHidl_1_3(radioIndex, stats, radioStats.V1_3);
+            aggregateFrameworkRadioStatsFromHidl_1_3(radioIndex, aggregateAllRadios, stats,
+                    radioStats.V1_3);
             radioIndex++;
         }
     }
@@ -1591,13 +1616,15 @@ public class WifiVendorHal {
     private static void setRadioStats_1_6(WifiLinkLayerStats stats,
             List<android.hardware.wifi.V1_6.StaLinkLayerRadioStats> radios) {
         if (radios == null) return;
+        boolean aggregateAllRadios = isAllRadiosStatsAggregationEnabled();
         int radioIndex = 0;
         stats.radioStats = new RadioStat[radios.size()];
         for (android.hardware.wifi.V1_6.StaLinkLayerRadioStats radioStats : radios) {
             RadioStat radio = new RadioStat();
             setFrameworkPerRadioStatsFromHidl_1_6(radio, radioStats);
             stats.radioStats[radioIndex] = radio;
-            aggregateFrameworkRadioStatsFromHidl_1_6(radioIndex, stats, radioStats);
+            aggregateFrameworkRadioStatsFromHidl_1_6(radioIndex, aggregateAllRadios, stats,
+                    radioStats);
             radioIndex++;
         }
     }
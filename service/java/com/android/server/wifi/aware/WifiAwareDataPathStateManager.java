@@ -1766,9 +1766,9 @@ public class WifiAwareDataPathStateManager {
             byte[] ipv6Override = null;
 
             try {
-                TlvBufferUtils.TlvIterable tlvi = new TlvBufferUtils.TlvIterable(1, 2, tlvs);
-                tlvi.setByteOrder(ByteOrder.LITTLE_ENDIAN);
-                for (TlvBufferUtils.TlvElement tlve : tlvi) {
+                TlvBufferUtils.TlvCursor tlve = new TlvBufferUtils.TlvCursor(1, 2)
+                        .setByteOrder(ByteOrder.LITTLE_ENDIAN).reset(tlvs);
+                while (tlve.next()) {
                     switch (tlve.type) {
                         case IPV6_LL_TYPE:
                             if (tlve.length != 8) { // 8 bytes in IPv6 address
@@ -1779,8 +1779,8 @@ public class WifiAwareDataPathStateManager {
                             ipv6Override = tlve.getRawData();
                             break;
                         case SERVICE_INFO_TYPE:
-                            Pair<Integer, Integer> serviceInfo = parseServiceInfoTlv(
-                                    tlve.getRawData());
+                            Pair<Integer, Integer> serviceInfo = parseServiceInfoTlv(tlvs,
+                                    tlve.offset, tlve.length);
                             if (serviceInfo == null) {
                                 return null;
                             }
@@ -1801,30 +1801,32 @@ public class WifiAwareDataPathStateManager {
         }
 
         /**
-         * Parse the Service Info TLV:
+         * Parse the Service Info TLV, in place at the given range of the array:
          * - Returns null on error
          * - Returns <port | 0, transport-protocol | -1> otherwise
          */
-        private static Pair<Integer, Integer> parseServiceInfoTlv(byte[] tlv) {
+        private static Pair<Integer, Integer> parseServiceInfoTlv(byte[] array, int offset,
+                int length) {
             int port = 0;
             int transportProtocol = -1;
 
-            if (tlv.length < 4) {
+            if (length < 4) {
                 Log.e(TAG, "NetworkInformationData: invalid SERVICE_INFO_TYPE length");
                 return null;
             }
-            if (tlv[0] != WFA_OUI[0] || tlv[1] != WFA_OUI[1] || tlv[2] != WFA_OUI[2]) {
+            if (array[offset] != WFA_OUI[0] || array[offset + 1] != WFA_OUI[1]
+                    || array[offset + 2] != WFA_OUI[2]) {
                 Log.e(TAG, "NetworkInformationData: unexpected OUI");
                 return null;
             }
-            if (tlv[3] != GENERIC_SERVICE_PROTOCOL_TYPE) {
-                Log.e(TAG, "NetworkInformationData: invalid type -- " + tlv[3]);
+            if (array[offset + 3] != GENERIC_SERVICE_PROTOCOL_TYPE) {
+                Log.e(TAG, "NetworkInformationData: invalid type -- " + array[offset + 3]);
                 return null;
             }
-            TlvBufferUtils.TlvIterable subTlvi = new TlvBufferUtils.TlvIterable(1,
-                    2, Arrays.copyOfRange(tlv, 4, tlv.length));
-            subTlvi.setByteOrder(ByteOrder.LITTLE_ENDIAN);
-            for (TlvBufferUtils.TlvElement subTlve : subTlvi) {
+            TlvBufferUtils.TlvCursor subTlve = new TlvBufferUtils.TlvCursor(1, 2)
+                    .setByteOrder(ByteOrder.LITTLE_ENDIAN)
+                    .reset(array, offset + 4, length - 4);
+            while (subTlve.next()) {
                 switch (subTlve.type) {
                     case SUB_TYPE_PORT:
                         if (subTlve.length != 2) {
@@ -71,6 +71,37 @@ public class CoexUtils {
         CHANNEL_SET_5_GHZ.addAll(CHANNEL_SET_5_GHZ_160_MHZ);
     }
     private static final SparseIntArray DEPENDENT_MAP_5_GHZ = create5gDependentChannelMap();
+    // Channel numbers of each band in ascending order.
+    private static final int[] CHANNELS_2G = create2gChannels();
+    private static final int[] CHANNELS_5G =
+            CHANNEL_SET_5_GHZ.stream().mapToInt(Integer::intValue).toArray();
+    // Channel edge frequencies indexed by channel number, so that the unsafe channel algorithms
+    // do not need to recompute them for every cell channel update.
+    private static final int[] LOWER_FREQS_KHZ_2G =
+            createChannelEdgeTable(NUM_24_GHZ_CHANNELS, WIFI_BAND_24_GHZ, true);
+    private static final int[] UPPER_FREQS_KHZ_2G =
+            createChannelEdgeTable(NUM_24_GHZ_CHANNELS, WIFI_BAND_24_GHZ, false);
+    private static final int[] LOWER_FREQS_KHZ_5G =
+            createChannelEdgeTable(CHANNEL_SET_5_GHZ.last(), WIFI_BAND_5_GHZ, true);
+    private static final int[] UPPER_FREQS_KHZ_5G =
+            createChannelEdgeTable(CHANNEL_SET_5_GHZ.last(), WIFI_BAND_5_GHZ, false);
+
+    private static int[] create2gChannels() {
+        int[] channels = new int[NUM_24_GHZ_CHANNELS];
+        for (int i = 0; i < NUM_24_GHZ_CHANNELS; i++) {
+            channels[i] = i + 1;
+        }
+        return channels;
+    }
+
+    private static int[] createChannelEdgeTable(int maxChannel,
+            @WifiAnnotations.WifiBandBasic int band, boolean lowerEdge) {
+        int[] table = new int[maxChannel + 1];
+        for (int channel = 0; channel <= maxChannel; channel++) {
+            table[channel] = computeChannelEdgeKhz(channel, band, lowerEdge);
+        }
+        return table;
+    }
 
     private static NavigableSet<Integer> create5g20MhzChannels() {
         NavigableSet<Integer> set = new TreeSet<>();
@@ -149,6 +180,22 @@ public class CoexUtils {
     /** Gets the upper or lower edge of a given channel */
     private static int getChannelEdgeKhz(int channel, @WifiAnnotations.WifiBandBasic int band,
             boolean lowerEdge) {
+        final int[] table;
+        if (band == WIFI_BAND_24_GHZ) {
+            table = lowerEdge ? LOWER_FREQS_KHZ_2G : UPPER_FREQS_KHZ_2G;
+        } else if (band == WIFI_BAND_5_GHZ) {
+            table = lowerEdge ? LOWER_FREQS_KHZ_5G : UPPER_FREQS_KHZ_5G;
+        } else {
+            table = null;
+        }
+        if (table != null && channel >= 0 && channel < table.length) {
+            return table[channel];
+        }
+        return computeChannelEdgeKhz(channel, band, lowerEdge);
+    }
+
+    private static int computeChannelEdgeKhz(int channel,
+            @WifiAnnotations.WifiBandBasic int band, boolean lowerEdge) {
         int centerFreqMhz = ScanResult.convertChannelToFrequencyMhzIfSupported(channel, band);
         if (centerFreqMhz == UNSPECIFIED) {
             return INVALID_FREQ;
@@ -519,16 +566,16 @@ public class CoexUtils {
         final int dlLowerKhz = (dlFreqKhz - (dlBandwidthKhz / 2));
         final int dlUpperKhz = (dlFreqKhz + (dlBandwidthKhz / 2));
 
-        Set<Integer> channelSet = new HashSet<>();
+        final int[] channels;
         if (band == WIFI_BAND_24_GHZ) {
-            for (int channel = 1; channel <= 14; channel++) {
-                channelSet.add(channel);
-            }
+            channels = CHANNELS_2G;
         } else if (band == WIFI_BAND_5_GHZ) {
-            channelSet.addAll(CHANNEL_SET_5_GHZ);
+            channels = CHANNELS_5G;
+        } else {
+            channels = new int[0];
         }
 
-        for (int channel : channelSet) {
+        for (int channel : channels) {
             final int wifiLowerKhz = getLowerFreqKhz(channel, band);
             final int wifiUpperKhz = getUpperFreqKhz(channel, band);
             final int intermodLowerKhz = Math.min(n * ulLowerKhz, n * ulUpperKhz)
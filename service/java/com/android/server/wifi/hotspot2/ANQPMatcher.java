@@ -47,12 +47,28 @@ public class ANQPMatcher {
      */
     public static boolean matchDomainName(DomainNameElement element, String fqdn,
             IMSIParameter imsiParam, String simImsi) {
+        return matchDomainNameLabels(element, Utils.splitDomainOrEmpty(fqdn), imsiParam, simImsi);
+    }
+
+    /**
+     * Same as {@link #matchDomainName(DomainNameElement, String, IMSIParameter, String)}, with
+     * the FQDN already split by {@link Utils#splitDomainOrEmpty(String)}.
+     *
+     * @param element The Domain Name ANQP element
+     * @param fqdnLabels The labels of the FQDN to compare against
+     * @param imsiParam The IMSI parameter of the provider (needed only for IMSI matching)
+     * @param simImsi The IMSI from the installed SIM cards that best matched provider's
+     *                    IMSI parameter (needed only for IMSI matching)
+     * @return true if a match is found
+     */
+    public static boolean matchDomainNameLabels(DomainNameElement element,
+            List<String> fqdnLabels, IMSIParameter imsiParam, String simImsi) {
         if (element == null) {
             return false;
         }
 
-        for (String domain : element.getDomains()) {
-            if (DomainMatcher.arg2SubdomainOfArg1(fqdn, domain)) {
+        for (List<String> domainLabels : element.getDomainLabels()) {
+            if (DomainMatcher.arg2SubdomainOfArg1(fqdnLabels, domainLabels)) {
                 return true;
             }
 
@@ -62,7 +78,7 @@ public class ANQPMatcher {
 
             // Try to retrieve the MCC-MNC string from the domain (for 3GPP network domain) and
             // match against the provider's SIM credential.
-            if (matchMccMnc(Utils.getMccMnc(Utils.splitDomain(domain)), imsiParam, simImsi)) {
+            if (matchMccMnc(Utils.getMccMnc(domainLabels), imsiParam, simImsi)) {
                 return true;
             }
         }
@@ -110,12 +126,25 @@ public class ANQPMatcher {
      * @return true if there is a NAI Realm match, false otherwise
      */
     public static boolean matchNAIRealm(NAIRealmElement element, String realm) {
+        return matchNAIRealmLabels(element, Utils.splitDomainOrEmpty(realm));
+    }
+
+    /**
+     * Same as {@link #matchNAIRealm(NAIRealmElement, String)}, with the realm already split by
+     * {@link Utils#splitDomainOrEmpty(String)}.
+     *
+     * @param element The NAI Realm ANQP element
+     * @param realmLabels The labels of the realm of the provider's credential
+     * @return true if there is a NAI Realm match, false otherwise
+     */
+    public static boolean matchNAIRealmLabels(NAIRealmElement element,
+            List<String> realmLabels) {
         if (element == null || element.getRealmDataList().isEmpty()) {
             return false;
         }
 
         for (NAIRealmData realmData : element.getRealmDataList()) {
-            if (matchNAIRealmData(realmData, realm)) {
+            if (matchNAIRealmData(realmData, realmLabels)) {
                 return true;
             }
         }
@@ -148,13 +177,13 @@ public class ANQPMatcher {
      * Match the given NAI Realm data against the realm and authentication method of a provider.
      *
      * @param realmData The NAI Realm data
-     * @param realm The realm of the provider's credential
+     * @param realmLabels The labels of the realm of the provider's credential
      * @return true if a match is found
      */
-    private static boolean matchNAIRealmData(NAIRealmData realmData, String realm) {
+    private static boolean matchNAIRealmData(NAIRealmData realmData, List<String> realmLabels) {
         // Check for realm domain name match.
-        for (String realmStr : realmData.getRealms()) {
-            if (DomainMatcher.arg2SubdomainOfArg1(realm, realmStr)) {
+        for (List<String> labels : realmData.getRealmLabels()) {
+            if (DomainMatcher.arg2SubdomainOfArg1(realmLabels, labels)) {
                 return true;
             }
         }
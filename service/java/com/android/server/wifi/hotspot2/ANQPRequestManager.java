@@ -33,6 +33,10 @@ import java.util.Map;
  * Class for managing sending of ANQP requests.  This manager will ignore ANQP requests for a
  * period of time (hold off time) to a specified AP if the previous request to that AP goes
  * unanswered or failed.  The hold off time will increase exponentially until the max is reached.
+ *
+ * APs sharing the same {@link ANQPNetworkKey} (same ESS and ANQP domain) return the same ANQP
+ * information, so only one request per key is kept in flight at a time.  The response to that
+ * request fills the cache for all of those APs.
  */
 public class ANQPRequestManager {
     private static final String TAG = "ANQPRequestManager";
@@ -45,6 +49,12 @@ public class ANQPRequestManager {
      */
     private final Map<Long, ANQPNetworkKey> mPendingQueries;
 
+    /**
+     * The request in flight for each {@link ANQPNetworkKey}.  Used to coalesce requests to APs
+     * that share the same key.
+     */
+    private final Map<ANQPNetworkKey, InFlightQuery> mInFlightQueries;
+
     /**
      * List of hold off time information associated with APs specified by their BSSID.
      * Used to determine when an ANQP request can be send to the corresponding AP after the
@@ -68,6 +78,13 @@ public class ANQPRequestManager {
     @VisibleForTesting
     public static final int MAX_HOLDOFF_COUNT = 6;
 
+    /**
+     * Number of milliseconds after which an unanswered in-flight request no longer prevents
+     * requests to other APs with the same {@link ANQPNetworkKey}.
+     */
+    @VisibleForTesting
+    public static final int IN_FLIGHT_QUERY_TIMEOUT_MILLISECONDS = 10000;
+
     private static final List<Constants.ANQPElementType> R1_ANQP_BASE_SET = Arrays.asList(
             Constants.ANQPElementType.ANQPVenueName,
             Constants.ANQPElementType.ANQPIPAddrAvailability,
@@ -96,11 +113,31 @@ public class ANQPRequestManager {
         public long holdOffExpirationTime;
     }
 
+    /**
+     * Class to keep track of the request in flight for an {@link ANQPNetworkKey}.
+     */
+    private static class InFlightQuery {
+        /**
+         * The BSSID of the AP the request was sent to.
+         */
+        public final long bssid;
+        /**
+         * The time stamp in milliseconds when the request was sent.
+         */
+        public final long startTimeMs;
+
+        InFlightQuery(long bssid, long startTimeMs) {
+            this.bssid = bssid;
+            this.startTimeMs = startTimeMs;
+        }
+    }
+
     public ANQPRequestManager(PasspointEventHandler handler, Clock clock) {
         mPasspointHandler = handler;
         mClock = clock;
         mPendingQueries = new HashMap<>();
         mHoldOffInfo = new HashMap<>();
+        mInFlightQueries = new HashMap<>();
     }
 
     /**
@@ -124,6 +161,12 @@ public class ANQPRequestManager {
             return false;
         }
 
+        // The response to an in-flight request for the same network key will provide the
+        // ANQP information for this AP as well.
+        if (isQueryInFlight(anqpNetworkKey)) {
+            return false;
+        }
+
         // No need to hold off future requests for send failures.
         if (!mPasspointHandler.requestANQP(bssid, getRequestElementIDs(rcOIs, hsReleaseVer))) {
             return false;
@@ -134,6 +177,8 @@ public class ANQPRequestManager {
         updateHoldOffInfo(bssid);
 
         mPendingQueries.put(bssid, anqpNetworkKey);
+        mInFlightQueries.put(anqpNetworkKey,
+                new InFlightQuery(bssid, mClock.getElapsedSinceBootMillis()));
         return true;
     }
 
@@ -165,7 +210,37 @@ public class ANQPRequestManager {
             // Query succeeded.  No need to hold off request to the given AP.
             mHoldOffInfo.remove(bssid);
         }
-        return mPendingQueries.remove(bssid);
+        ANQPNetworkKey anqpNetworkKey = mPendingQueries.remove(bssid);
+        if (anqpNetworkKey != null) {
+            // A late completion of a timed out request must not clear the marker of a newer
+            // request for the same key sent to another AP.
+            InFlightQuery query = mInFlightQueries.get(anqpNetworkKey);
+            if (query != null && query.bssid == bssid) {
+                mInFlightQueries.remove(anqpNetworkKey);
+            }
+        }
+        return anqpNetworkKey;
+    }
+
+    /**
+     * Check if a request for the specified network key was sent recently and is still waiting
+     * for a response.
+     *
+     * @param anqpNetworkKey The network key of an AP
+     * @return true if such a request is in flight
+     */
+    private boolean isQueryInFlight(ANQPNetworkKey anqpNetworkKey) {
+        InFlightQuery query = mInFlightQueries.get(anqpNetworkKey);
+        if (query == null) {
+            return false;
+        }
+        if (mClock.getElapsedSinceBootMillis() - query.startTimeMs
+                >= IN_FLIGHT_QUERY_TIMEOUT_MILLISECONDS) {
+            mInFlightQueries.remove(anqpNetworkKey);
+            return false;
+        }
+        Log.d(TAG, "ANQP request for " + anqpNetworkKey + " already in flight");
+        return true;
     }
 
     /**
@@ -248,6 +323,7 @@ public class ANQPRequestManager {
                     + (holdOffInfo.getValue().holdOffExpirationTime
                     - mClock.getElapsedSinceBootMillis()) / 1000 + " seconds");
         }
+        pw.println("In-flight ANQP requests: " + mInFlightQueries.keySet());
         pw.println("ANQPRequestManager - End ---");
     }
 
@@ -257,5 +333,6 @@ public class ANQPRequestManager {
     public void clear() {
         mPendingQueries.clear();
         mHoldOffInfo.clear();
+        mInFlightQueries.clear();
     }
 }
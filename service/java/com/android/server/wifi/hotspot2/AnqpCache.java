@@ -23,26 +23,46 @@ import com.android.server.wifi.hotspot2.anqp.Constants;
 
 import java.io.PrintWriter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Cache for storing ANQP data.  This is simply a data cache, all the logic related to
  * ANQP data query will be handled elsewhere (e.g. the consumer of the cache).
+ *
+ * The cache is bounded to {@link #MAX_CACHE_ENTRIES} entries, the least recently used entry is
+ * evicted first when the limit is reached. Expired entries are dropped when they are looked up,
+ * in addition to the periodic {@link #sweep()}.
  */
 public class AnqpCache {
     @VisibleForTesting
     public static final long CACHE_SWEEP_INTERVAL_MILLISECONDS = 60000L;
+    @VisibleForTesting
+    public static final int MAX_CACHE_ENTRIES = 1000;
 
     private long mLastSweep;
     private Clock mClock;
+    private final int mMaxEntries;
 
     private final Map<ANQPNetworkKey, ANQPData> mANQPCache;
 
+    private long mNumHits;
+    private long mNumMisses;
+    private long mNumEvictions;
+    private long mNumExpirations;
+
     public AnqpCache(Clock clock) {
+        this(clock, MAX_CACHE_ENTRIES);
+    }
+
+    @VisibleForTesting
+    AnqpCache(Clock clock, int maxEntries) {
         mClock = clock;
-        mANQPCache = new HashMap<>();
+        mMaxEntries = maxEntries;
+        // Access order, so that the eldest entry is the least recently used one.
+        mANQPCache = new LinkedHashMap<>(16, 0.75f, true);
         mLastSweep = mClock.getElapsedSinceBootMillis();
     }
 
@@ -56,6 +76,7 @@ public class AnqpCache {
             Map<Constants.ANQPElementType, ANQPElement> anqpElements) {
         ANQPData data = new ANQPData(mClock, anqpElements);
         mANQPCache.put(key, data);
+        trim();
     }
 
     /**
@@ -68,22 +89,46 @@ public class AnqpCache {
      */
     public void addOrUpdateEntry(ANQPNetworkKey key,
             Map<Constants.ANQPElementType, ANQPElement> anqpElements) {
-        if (!mANQPCache.containsKey(key)) {
+        ANQPData data = mANQPCache.get(key);
+        if (data == null) {
             // Create a new entry
             addEntry(key, anqpElements);
             return;
         }
-        mANQPCache.get(key).update(anqpElements);
+        data.update(anqpElements);
     }
 
     /**
      * Get the ANQP data associated with the given AP.
      *
      * @param key The key that's associated with the entry
-     * @return {@link ANQPData}
+     * @return {@link ANQPData}, or null if there is no entry or the entry has expired
      */
     public ANQPData getEntry(ANQPNetworkKey key) {
-        return mANQPCache.get(key);
+        ANQPData data = mANQPCache.get(key);
+        if (data != null && data.expired(mClock.getElapsedSinceBootMillis())) {
+            mANQPCache.remove(key);
+            mNumExpirations++;
+            data = null;
+        }
+        if (data == null) {
+            mNumMisses++;
+        } else {
+            mNumHits++;
+        }
+        return data;
+    }
+
+    /**
+     * Evict the least recently used entries until the cache is within its size limit.
+     */
+    private void trim() {
+        Iterator<ANQPData> iter = mANQPCache.values().iterator();
+        while (mANQPCache.size() > mMaxEntries && iter.hasNext()) {
+            iter.next();
+            iter.remove();
+            mNumEvictions++;
+        }
     }
 
     /**
@@ -108,12 +153,16 @@ public class AnqpCache {
         for (ANQPNetworkKey key : expiredKeys) {
             mANQPCache.remove(key);
         }
+        mNumExpirations += expiredKeys.size();
         mLastSweep = now;
     }
 
     public void dump(PrintWriter out) {
         out.println("Last sweep " + Utils.toHMS(mClock.getElapsedSinceBootMillis() - mLastSweep)
                 + " ago.");
+        out.println("Entries: " + mANQPCache.size() + "/" + mMaxEntries + ", hits: " + mNumHits
+                + ", misses: " + mNumMisses + ", evictions: " + mNumEvictions + ", expirations: "
+                + mNumExpirations);
         for (Map.Entry<ANQPNetworkKey, ANQPData> entry : mANQPCache.entrySet()) {
             out.println(entry.getKey() + ": " + entry.getValue());
         }
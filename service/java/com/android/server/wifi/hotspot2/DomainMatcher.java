@@ -189,8 +189,22 @@ public class DomainMatcher {
             return false;
         }
 
-        List<String> labels1 = Utils.splitDomain(domain1);
-        List<String> labels2 = Utils.splitDomain(domain2);
+        return arg2SubdomainOfArg1(Utils.splitDomain(domain1), Utils.splitDomain(domain2));
+    }
+
+    /**
+     * Check if the domain represented by labels2 is a sub-domain of the domain represented by
+     * labels1.  This allows callers that match the same domains repeatedly to split them with
+     * {@link Utils#splitDomain(String)} only once.
+     *
+     * @param labels1 The labels of the first domain, empty for an empty domain
+     * @param labels2 The labels of the second domain, empty for an empty domain
+     * @return true if the second domain is the sub-domain of the first
+     */
+    public static boolean arg2SubdomainOfArg1(List<String> labels1, List<String> labels2) {
+        if (labels1.isEmpty() || labels2.isEmpty()) {
+            return false;
+        }
 
         // domain2 must be the same or longer than domain1 in order to be a sub-domain.
         if (labels2.size() < labels1.size()) {
@@ -64,6 +64,7 @@ import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -106,6 +107,14 @@ public class PasspointProvider {
 
     private final IMSIParameter mImsiParameter;
 
+    /**
+     * Labels of the home FQDN, other home partners and credential realm, split once so that they
+     * don't need to be split again for every AP this provider is matched against.
+     */
+    private final List<String> mFqdnLabels;
+    private final List<List<String>> mOtherHomePartnerLabels;
+    private final List<String> mRealmLabels;
+
     private final int mEAPMethodID;
     private final AuthParam mAuthParam;
     private final WifiCarrierInfoManager mWifiCarrierInfoManager;
@@ -172,6 +181,18 @@ public class PasspointProvider {
             mImsiParameter = IMSIParameter.build(
                     mConfig.getCredential().getSimCredential().getImsi());
         }
+
+        mFqdnLabels = Utils.splitDomainOrEmpty(mConfig.getHomeSp().getFqdn());
+        String[] otherHomePartners = mConfig.getHomeSp().getOtherHomePartners();
+        if (otherHomePartners != null) {
+            mOtherHomePartnerLabels = new ArrayList<>(otherHomePartners.length);
+            for (String otherHomePartner : otherHomePartners) {
+                mOtherHomePartnerLabels.add(Utils.splitDomainOrEmpty(otherHomePartner));
+            }
+        } else {
+            mOtherHomePartnerLabels = Collections.emptyList();
+        }
+        mRealmLabels = Utils.splitDomainOrEmpty(mConfig.getCredential().getRealm());
     }
 
     /**
@@ -467,9 +488,9 @@ public class PasspointProvider {
         }
 
         // Perform NAI Realm matching
-        boolean realmMatch = ANQPMatcher.matchNAIRealm(
+        boolean realmMatch = ANQPMatcher.matchNAIRealmLabels(
                 (NAIRealmElement) anqpElements.get(ANQPElementType.ANQPNAIRealm),
-                mConfig.getCredential().getRealm());
+                mRealmLabels);
 
         // In case of no realm match, return provider match as is.
         if (!realmMatch) {
@@ -856,9 +877,10 @@ public class PasspointProvider {
             RoamingConsortium roamingConsortiumFromAp, String matchingSIMImsi,
             ScanResult scanResult) {
         // Domain name matching.
-        if (ANQPMatcher.matchDomainName(
-                (DomainNameElement) anqpElements.get(ANQPElementType.ANQPDomName),
-                mConfig.getHomeSp().getFqdn(), mImsiParameter, matchingSIMImsi)) {
+        DomainNameElement domainNameElement =
+                (DomainNameElement) anqpElements.get(ANQPElementType.ANQPDomName);
+        if (ANQPMatcher.matchDomainNameLabels(domainNameElement, mFqdnLabels, mImsiParameter,
+                matchingSIMImsi)) {
             if (mVerboseLoggingEnabled) {
                 Log.d(TAG, "Domain name " + mConfig.getHomeSp().getFqdn()
                         + " match: HomeProvider");
@@ -867,17 +889,15 @@ public class PasspointProvider {
         }
 
         // Other Home Partners matching.
-        if (mConfig.getHomeSp().getOtherHomePartners() != null) {
-            for (String otherHomePartner : mConfig.getHomeSp().getOtherHomePartners()) {
-                if (ANQPMatcher.matchDomainName(
-                        (DomainNameElement) anqpElements.get(ANQPElementType.ANQPDomName),
-                        otherHomePartner, null, null)) {
-                    if (mVerboseLoggingEnabled) {
-                        Log.d(TAG, "Other Home Partner " + otherHomePartner
-                                + " match: HomeProvider");
-                    }
-                    return PasspointMatch.HomeProvider;
+        for (int i = 0; i < mOtherHomePartnerLabels.size(); i++) {
+            if (ANQPMatcher.matchDomainNameLabels(domainNameElement,
+                    mOtherHomePartnerLabels.get(i), null, null)) {
+                if (mVerboseLoggingEnabled) {
+                    Log.d(TAG, "Other Home Partner "
+                            + mConfig.getHomeSp().getOtherHomePartners()[i]
+                            + " match: HomeProvider");
                 }
+                return PasspointMatch.HomeProvider;
             }
         }
 
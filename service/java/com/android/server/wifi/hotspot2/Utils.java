@@ -10,6 +10,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.TimeZone;
@@ -44,6 +45,17 @@ public abstract class Utils {
         return labelList;
     }
 
+    /**
+     * Same as {@link #splitDomain(String)}, but returns an empty list for an empty domain and a
+     * random access list otherwise, suitable for keeping the labels around for repeated matching.
+     */
+    public static List<String> splitDomainOrEmpty(String domain) {
+        if (domain == null || domain.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(splitDomain(domain));
+    }
+
     public static long parseMac(String s) {
         if (s == null) {
             throw new IllegalArgumentException("Null MAC adddress");
@@ -18,6 +18,7 @@ package com.android.server.wifi.hotspot2.anqp;
 
 import com.android.internal.annotations.VisibleForTesting;
 import com.android.server.wifi.ByteBufferReader;
+import com.android.server.wifi.hotspot2.Utils;
 
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
@@ -40,6 +41,12 @@ import java.util.List;
 public class DomainNameElement extends ANQPElement {
     private final List<String> mDomains;
 
+    /**
+     * Labels of each domain in {@link #mDomains}, split on first use.  Elements are cached and
+     * matched against every installed provider, so the domains are only split once.
+     */
+    private List<List<String>> mDomainLabels;
+
     @VisibleForTesting
     public DomainNameElement(List<String> domains) {
         super(Constants.ANQPElementType.ANQPDomName);
@@ -67,6 +74,21 @@ public class DomainNameElement extends ANQPElement {
         return Collections.unmodifiableList(mDomains);
     }
 
+    /**
+     * Return the labels of each domain, in the same order as {@link #getDomains()}, as split by
+     * {@link Utils#splitDomainOrEmpty(String)}.
+     */
+    public List<List<String>> getDomainLabels() {
+        if (mDomainLabels == null) {
+            List<List<String>> domainLabels = new ArrayList<>(mDomains.size());
+            for (String domain : mDomains) {
+                domainLabels.add(Utils.splitDomainOrEmpty(domain));
+            }
+            mDomainLabels = Collections.unmodifiableList(domainLabels);
+        }
+        return mDomainLabels;
+    }
+
     @Override
     public boolean equals(Object thatObject) {
         if (this == thatObject) {
@@ -18,6 +18,7 @@ package com.android.server.wifi.hotspot2.anqp;
 
 import com.android.internal.annotations.VisibleForTesting;
 import com.android.server.wifi.ByteBufferReader;
+import com.android.server.wifi.hotspot2.Utils;
 import com.android.server.wifi.hotspot2.anqp.eap.EAPMethod;
 
 import java.net.ProtocolException;
@@ -48,6 +49,7 @@ public class NAIRealmData {
     public static final String NAI_REALM_STRING_SEPARATOR = ";";
 
     private final List<String> mRealms;
+    private List<List<String>> mRealmLabels;
     private final List<EAPMethod> mEAPMethods;
 
     @VisibleForTesting
@@ -94,6 +96,21 @@ public class NAIRealmData {
         return Collections.unmodifiableList(mRealms);
     }
 
+    /**
+     * Return the labels of each realm, in the same order as {@link #getRealms()}, as split by
+     * {@link Utils#splitDomainOrEmpty(String)}.  The realms are split once on first use.
+     */
+    public List<List<String>> getRealmLabels() {
+        if (mRealmLabels == null) {
+            List<List<String>> realmLabels = new ArrayList<>(mRealms.size());
+            for (String realm : mRealms) {
+                realmLabels.add(Utils.splitDomainOrEmpty(realm));
+            }
+            mRealmLabels = Collections.unmodifiableList(realmLabels);
+        }
+        return mRealmLabels;
+    }
+
     public List<EAPMethod> getEAPMethods() {
         return Collections.unmodifiableList(mEAPMethods);
     }
@@ -2515,8 +2515,14 @@ public class WifiP2pServiceImpl extends IWifiP2pManager.Stub {
                         }
                         WifiP2pDevice device = (WifiP2pDevice) message.obj;
                         if (mThisDevice.deviceAddress.equals(device.deviceAddress)) break;
+                        // Discovery reports the same peers over and over, only broadcast
+                        // when the peer list actually changes.
+                        boolean peersChanged = isSupplicantDetailsChanged(
+                                mPeers.get(device.deviceAddress), device);
                         mPeers.updateSupplicantDetails(device);
-                        sendPeersChangedBroadcast();
+                        if (peersChanged) {
+                            sendPeersChangedBroadcast();
+                        }
                         break;
                     case WifiP2pMonitor.P2P_DEVICE_LOST_EVENT:
                         if (message.obj == null) {
@@ -4342,6 +4348,31 @@ public class WifiP2pServiceImpl extends IWifiP2pManager.Stub {
             sendBroadcastMultiplePermissions(intent);
         }
 
+        /**
+         * Returns true if applying the supplicant details of a found device would add or modify
+         * the given peer entry.
+         */
+        private boolean isSupplicantDetailsChanged(WifiP2pDevice peer, WifiP2pDevice found) {
+            if (peer == null) return true;
+            return !Objects.equals(peer.deviceName, found.deviceName)
+                    || !Objects.equals(peer.primaryDeviceType, found.primaryDeviceType)
+                    || !Objects.equals(peer.secondaryDeviceType, found.secondaryDeviceType)
+                    || peer.wpsConfigMethodsSupported != found.wpsConfigMethodsSupported
+                    || peer.deviceCapability != found.deviceCapability
+                    || peer.groupCapability != found.groupCapability
+                    || isWfdInfoChanged(peer.wfdInfo, found.wfdInfo);
+        }
+
+        private boolean isWfdInfoChanged(WifiP2pWfdInfo current, WifiP2pWfdInfo found) {
+            if (current == found) return false;
+            if (current == null || found == null) return true;
+            return current.isEnabled() != found.isEnabled()
+                    || current.getDeviceInfo() != found.getDeviceInfo()
+                    || current.getR2DeviceInfo() != found.getR2DeviceInfo()
+                    || current.getControlPort() != found.getControlPort()
+                    || current.getMaxThroughput() != found.getMaxThroughput();
+        }
+
         private void sendP2pConnectionChangedBroadcast() {
             if (isVerboseLoggingEnabled()) logd("sending p2p connection changed broadcast");
             Intent intent = new Intent(WifiP2pManager.WIFI_P2P_CONNECTION_CHANGED_ACTION);
@@ -16,13 +16,20 @@
 
 package com.android.server.wifi.util;
 
-import java.util.ArrayList;
-
 /**
  * A ring buffer where each element of the ring is itself a byte array.
+ *
+ * Elements are kept in a circular array of references, so that appending and evicting elements
+ * does not shift the remaining ones. Appended arrays are retained by reference and must not be
+ * modified afterwards.
  */
 public class ByteArrayRingBuffer {
-    private ArrayList<byte[]> mArrayList;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[][] mBuffers;
+    /** Index in {@link #mBuffers} of the oldest element. */
+    private int mHead;
+    private int mNumBuffers;
     private int mMaxBytes;
     private int mBytesUsed;
 
@@ -35,7 +42,7 @@ public class ByteArrayRingBuffer {
         if (maxBytes < 1) {
             throw new IllegalArgumentException();
         }
-        mArrayList = new ArrayList<byte[]>();
+        mBuffers = new byte[INITIAL_CAPACITY][];
         mMaxBytes = maxBytes;
         mBytesUsed = 0;
     }
@@ -55,7 +62,11 @@ public class ByteArrayRingBuffer {
             return false;
         }
 
-        mArrayList.add(newData);
+        if (mNumBuffers == mBuffers.length) {
+            grow();
+        }
+        mBuffers[(mHead + mNumBuffers) % mBuffers.length] = newData;
+        mNumBuffers++;
         mBytesUsed += newData.length;
         return true;
     }
@@ -66,7 +77,10 @@ public class ByteArrayRingBuffer {
      * @return the requested element
      */
     public byte[] getBuffer(int i) {
-        return mArrayList.get(i);
+        if (i < 0 || i >= mNumBuffers) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + mNumBuffers);
+        }
+        return mBuffers[(mHead + i) % mBuffers.length];
     }
 
     /**
@@ -74,7 +88,7 @@ public class ByteArrayRingBuffer {
      * @return the number of elements present
      */
     public int getNumBuffers() {
-        return mArrayList.size();
+        return mNumBuffers;
     }
 
     /**
@@ -87,13 +101,23 @@ public class ByteArrayRingBuffer {
     }
 
     private void pruneToSize(int sizeBytes) {
-        int newBytesUsed = mBytesUsed;
-        int i = 0;
-        while (i < mArrayList.size() && newBytesUsed > sizeBytes) {
-            newBytesUsed -= mArrayList.get(i).length;
-            i++;
+        while (mNumBuffers > 0 && mBytesUsed > sizeBytes) {
+            mBytesUsed -= mBuffers[mHead].length;
+            mBuffers[mHead] = null;
+            mHead = (mHead + 1) % mBuffers.length;
+            mNumBuffers--;
         }
-        mArrayList.subList(0, i).clear();
-        mBytesUsed = newBytesUsed;
+    }
+
+    /**
+     * Doubles the capacity of the circular array, moving the elements to its start.
+     */
+    private void grow() {
+        byte[][] newBuffers = new byte[mBuffers.length * 2][];
+        int firstChunk = Math.min(mNumBuffers, mBuffers.length - mHead);
+        System.arraycopy(mBuffers, mHead, newBuffers, 0, firstChunk);
+        System.arraycopy(mBuffers, 0, newBuffers, firstChunk, mNumBuffers - firstChunk);
+        mBuffers = newBuffers;
+        mHead = 0;
     }
 }
@@ -70,41 +70,56 @@ public class InformationElementUtil {
         if (bytes == null) {
             return new InformationElement[0];
         }
-        ByteBuffer data = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        // Count the elements first, so that the result is allocated with its exact size.
+        InformationElement[] infoElements =
+                new InformationElement[walkInformationElements(bytes, null)];
+        walkInformationElements(bytes, infoElements);
+        return infoElements;
+    }
 
-        ArrayList<InformationElement> infoElements = new ArrayList<>();
-        boolean found_ssid = false;
-        while (data.remaining() > 1) {
-            int eid = data.get() & Constants.BYTE_MASK;
+    /**
+     * Walk the information elements in |bytes|, storing them in |infoElements| if it is not null.
+     *
+     * @return the number of information elements found
+     */
+    private static int walkInformationElements(byte[] bytes, InformationElement[] infoElements) {
+        int count = 0;
+        int pos = 0;
+        boolean foundSsid = false;
+        while (bytes.length - pos > 1) {
+            int eid = bytes[pos++] & Constants.BYTE_MASK;
             int eidExt = 0;
-            int elementLength = data.get() & Constants.BYTE_MASK;
+            int elementLength = bytes[pos++] & Constants.BYTE_MASK;
 
-            if (elementLength > data.remaining() || (eid == InformationElement.EID_SSID
-                    && found_ssid)) {
+            if (elementLength > bytes.length - pos || (eid == InformationElement.EID_SSID
+                    && foundSsid)) {
                 // APs often pad the data with bytes that happen to match that of the EID_SSID
                 // marker.  This is not due to a known issue for APs to incorrectly send the SSID
                 // name multiple times.
                 break;
             }
             if (eid == InformationElement.EID_SSID) {
-                found_ssid = true;
+                foundSsid = true;
             } else if (eid == InformationElement.EID_EXTENSION_PRESENT) {
                 if (elementLength == 0) {
                     // Malformed IE, skipping
                     break;
                 }
-                eidExt = data.get() & Constants.BYTE_MASK;
+                eidExt = bytes[pos++] & Constants.BYTE_MASK;
                 elementLength--;
             }
 
-            InformationElement ie = new InformationElement();
-            ie.id = eid;
-            ie.idExt = eidExt;
-            ie.bytes = new byte[elementLength];
-            data.get(ie.bytes);
-            infoElements.add(ie);
+            if (infoElements != null) {
+                InformationElement ie = new InformationElement();
+                ie.id = eid;
+                ie.idExt = eidExt;
+                ie.bytes = Arrays.copyOfRange(bytes, pos, pos + elementLength);
+                infoElements[count] = ie;
+            }
+            count++;
+            pos += elementLength;
         }
-        return infoElements.toArray(new InformationElement[infoElements.size()]);
+        return count;
     }
 
     /**
@@ -1238,16 +1253,17 @@ public class InformationElementUtil {
                 if ((attrLen == 0) || (attrLen > data.remaining())) {
                     return;
                 }
-                byte[] attrBytes = new byte[attrLen];
-                data.get(attrBytes);
+                int attrStart = data.position();
+                data.position(attrStart + attrLen);
                 switch (attrId) {
                     case MboOceConstants.MBO_OCE_AID_MBO_AP_CAPABILITY_INDICATION:
                         IsMboCapable = true;
-                        IsMboApCellularDataAware = (attrBytes[0]
+                        IsMboApCellularDataAware = (data.get(attrStart)
                                 & MboOceConstants.MBO_AP_CAP_IND_ATTR_CELL_DATA_AWARE) != 0;
                         break;
                     case MboOceConstants.MBO_OCE_AID_ASSOCIATION_DISALLOWED:
-                        mboAssociationDisallowedReasonCode = attrBytes[0] & Constants.BYTE_MASK;
+                        mboAssociationDisallowedReasonCode =
+                                data.get(attrStart) & Constants.BYTE_MASK;
                         break;
                     case MboOceConstants.MBO_OCE_AID_OCE_AP_CAPABILITY_INDICATION:
                         IsOceCapable = true;
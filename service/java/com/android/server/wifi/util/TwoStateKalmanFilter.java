@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.server.wifi.util;
+
+/**
+ * Kalman filter with a two element state and a scalar observation
+ *
+ * Computes the same results as {@link KalmanFilter} configured with 2x2 F, Q and P, a 1x2 H
+ * and a 1x1 R, with the arithmetic carried out in the same order. The state is kept in
+ * primitive fields and updated in place, so predict() and update() do not allocate.
+ */
+public class TwoStateKalmanFilter {
+    // stateTransition
+    private double mF00, mF01, mF10, mF11;
+    // processNoiseCovariance
+    private double mQ00, mQ01, mQ10, mQ11;
+    // observationModel
+    private double mH0, mH1;
+    // observationNoiseCovariance
+    private double mR;
+    // aPosterioriErrorCovariance
+    private double mP00, mP01, mP10, mP11;
+    // stateEstimate
+    private double mX0, mX1;
+
+    /**
+     * Sets the state transition matrix F.
+     */
+    public void setStateTransition(double f00, double f01, double f10, double f11) {
+        mF00 = f00;
+        mF01 = f01;
+        mF10 = f10;
+        mF11 = f11;
+    }
+
+    /**
+     * Sets the process noise covariance Q.
+     */
+    public void setProcessNoiseCovariance(double q00, double q01, double q10, double q11) {
+        mQ00 = q00;
+        mQ01 = q01;
+        mQ10 = q10;
+        mQ11 = q11;
+    }
+
+    /**
+     * Sets the observation model H, a single row.
+     */
+    public void setObservationModel(double h0, double h1) {
+        mH0 = h0;
+        mH1 = h1;
+    }
+
+    /**
+     * Sets the observation noise variance R.
+     */
+    public void setObservationNoiseVariance(double r) {
+        mR = r;
+    }
+
+    /**
+     * Sets the a posteriori error covariance P.
+     */
+    public void setErrorCovariance(double p00, double p01, double p10, double p11) {
+        mP00 = p00;
+        mP01 = p01;
+        mP10 = p10;
+        mP11 = p11;
+    }
+
+    /**
+     * Sets the state estimate x.
+     */
+    public void setState(double x0, double x1) {
+        mX0 = x0;
+        mX1 = x1;
+    }
+
+    /**
+     * Gets an element of the state estimate x.
+     *
+     * @param i is the row index, 0 or 1
+     */
+    public double getState(int i) {
+        if (i == 0) return mX0;
+        if (i == 1) return mX1;
+        throw new IndexOutOfBoundsException("i = " + i);
+    }
+
+    /**
+     * Copies the state estimate x into a caller-supplied 2x1 matrix
+     *
+     * @param result is space to hold the result
+     * @return result, filled with the state estimate
+     * @throws IllegalArgumentException if result shape is wrong
+     */
+    public Matrix getState(Matrix result) {
+        if (!(result.n == 2 && result.m == 1)) throw new IllegalArgumentException();
+        result.put(0, 0, mX0);
+        result.put(1, 0, mX1);
+        return result;
+    }
+
+    /**
+     * Copies the a posteriori error covariance P into a caller-supplied 2x2 matrix
+     *
+     * @param result is space to hold the result
+     * @return result, filled with the error covariance
+     * @throws IllegalArgumentException if result shape is wrong
+     */
+    public Matrix getErrorCovariance(Matrix result) {
+        if (!(result.n == 2 && result.m == 2)) throw new IllegalArgumentException();
+        result.put(0, 0, mP00);
+        result.put(0, 1, mP01);
+        result.put(1, 0, mP10);
+        result.put(1, 1, mP11);
+        return result;
+    }
+
+    /**
+     * Performs the prediction phase of the filter, using the state estimate to produce
+     * a new estimate for the current timestep.
+     */
+    public void predict() {
+        double x0 = mF00 * mX0 + mF01 * mX1;
+        double x1 = mF10 * mX0 + mF11 * mX1;
+        mX0 = x0;
+        mX1 = x1;
+
+        // F.P
+        double fp00 = mF00 * mP00 + mF01 * mP10;
+        double fp01 = mF00 * mP01 + mF01 * mP11;
+        double fp10 = mF10 * mP00 + mF11 * mP10;
+        double fp11 = mF10 * mP01 + mF11 * mP11;
+        // F.P.F' + Q
+        mP00 = (fp00 * mF00 + fp01 * mF01) + mQ00;
+        mP01 = (fp00 * mF10 + fp01 * mF11) + mQ01;
+        mP10 = (fp10 * mF00 + fp11 * mF01) + mQ10;
+        mP11 = (fp10 * mF10 + fp11 * mF11) + mQ11;
+    }
+
+    /**
+     * Updates the state estimate to incorporate the new observation z.
+     *
+     * @throws ArithmeticException if the innovation covariance is zero
+     */
+    public void update(double z) {
+        double y = z - (mH0 * mX0 + mH1 * mX1);
+        // H.P.H' + R
+        double hp0 = mH0 * mP00 + mH1 * mP10;
+        double hp1 = mH0 * mP01 + mH1 * mP11;
+        double s = (hp0 * mH0 + hp1 * mH1) + mR;
+        if (s == 0.0) throw new ArithmeticException("Singular matrix");
+        double sInverse = 1.0 / s;
+        // K = P.H'.S^-1
+        double k0 = (mP00 * mH0 + mP01 * mH1) * sInverse;
+        double k1 = (mP10 * mH0 + mP11 * mH1) * sInverse;
+        mX0 = mX0 + k0 * y;
+        mX1 = mX1 + k1 * y;
+
+        // P - K.H.P
+        double kh00 = k0 * mH0;
+        double kh01 = k0 * mH1;
+        double kh10 = k1 * mH0;
+        double kh11 = k1 * mH1;
+        double p00 = mP00 - (kh00 * mP00 + kh01 * mP10);
+        double p01 = mP01 - (kh00 * mP01 + kh01 * mP11);
+        double p10 = mP10 - (kh10 * mP00 + kh11 * mP10);
+        double p11 = mP11 - (kh10 * mP01 + kh11 * mP11);
+        mP00 = p00;
+        mP01 = p01;
+        mP10 = p10;
+        mP11 = p11;
+    }
+
+    @Override
+    public String toString() {
+        return "{F: [" + mF00 + ", " + mF01 + "; " + mF10 + ", " + mF11 + "]"
+                + " Q: [" + mQ00 + ", " + mQ01 + "; " + mQ10 + ", " + mQ11 + "]"
+                + " H: [" + mH0 + ", " + mH1 + "]"
+                + " R: [" + mR + "]"
+                + " P: [" + mP00 + ", " + mP01 + "; " + mP10 + ", " + mP11 + "]"
+                + " x: [" + mX0 + "; " + mX1 + "]"
+                + "}";
+    }
+}
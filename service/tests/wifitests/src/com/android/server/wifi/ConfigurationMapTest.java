@@ -427,4 +427,48 @@ public class ConfigurationMapTest extends WifiBaseTest {
         mConfigs.put(config);
         assertNull(mConfigs.getByScanResultForCurrentUser(scanResult));
     }
+
+    /**
+     * Verifies that {@link ConfigurationMap#getByScanResultForCurrentUser(ScanResult)} picks the
+     * network with matching security among networks sharing the same SSID, and that each of them
+     * stops matching once removed.
+     */
+    @Test
+    public void testScanResultMatchAmongNetworksWithSameSsid() {
+        WifiConfiguration openConfig = WifiConfigurationTestUtil.createOpenNetwork("\"same\"");
+        openConfig.networkId = 5;
+        WifiConfiguration pskConfig = WifiConfigurationTestUtil.createPskNetwork("\"same\"");
+        pskConfig.networkId = 6;
+        ScanResult openScanResult = createScanResultForNetwork(openConfig);
+        ScanResult pskScanResult = createScanResultForNetwork(pskConfig);
+        mConfigs.put(openConfig);
+        mConfigs.put(pskConfig);
+
+        assertEquals(openConfig, mConfigs.getByScanResultForCurrentUser(openScanResult));
+        assertEquals(pskConfig, mConfigs.getByScanResultForCurrentUser(pskScanResult));
+
+        mConfigs.remove(openConfig.networkId);
+        assertNull(mConfigs.getByScanResultForCurrentUser(openScanResult));
+        assertEquals(pskConfig, mConfigs.getByScanResultForCurrentUser(pskScanResult));
+    }
+
+    /**
+     * Verifies that {@link ConfigurationMap#getByScanResultForCurrentUser(ScanResult)} no longer
+     * matches the previous SSID of a network after it is overwritten with a different SSID.
+     */
+    @Test
+    public void testScanResultDoesNotMatchOldSsidAfterNetworkUpdate() {
+        WifiConfiguration config = WifiConfigurationTestUtil.createOpenNetwork("\"old\"");
+        config.networkId = 5;
+        ScanResult oldScanResult = createScanResultForNetwork(config);
+        mConfigs.put(config);
+        assertNotNull(mConfigs.getByScanResultForCurrentUser(oldScanResult));
+
+        WifiConfiguration updatedConfig = new WifiConfiguration(config);
+        updatedConfig.SSID = "\"new\"";
+        mConfigs.put(updatedConfig);
+        assertNull(mConfigs.getByScanResultForCurrentUser(oldScanResult));
+        assertEquals(updatedConfig, mConfigs.getByScanResultForCurrentUser(
+                createScanResultForNetwork(updatedConfig)));
+    }
 }
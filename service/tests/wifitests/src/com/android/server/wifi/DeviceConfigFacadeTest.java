@@ -197,6 +197,7 @@ public class DeviceConfigFacadeTest extends WifiBaseTest {
         assertEquals(DeviceConfigFacade.DEFAULT_RX_LINK_SPEED_LOW_THRESHOLD_MBPS,
                 mDeviceConfigFacade.getRxLinkSpeedLowThresholdMbps());
         assertEquals(false, mDeviceConfigFacade.isWifiBatterySaverEnabled());
+        assertEquals(false, mDeviceConfigFacade.isConfigStoreBinaryXmlWriteEnabled());
         assertEquals(DeviceConfigFacade.DEFAULT_HEALTH_MONITOR_RSSI_POLL_VALID_TIME_MS,
                 mDeviceConfigFacade.getHealthMonitorRssiPollValidTimeMs());
         assertEquals(DeviceConfigFacade.DEFAULT_HEALTH_MONITOR_SHORT_CONNECTION_DURATION_THR_MS,
@@ -319,6 +320,8 @@ public class DeviceConfigFacadeTest extends WifiBaseTest {
                 anyInt())).thenReturn(10);
         when(DeviceConfig.getBoolean(anyString(), eq("battery_saver_enabled"), anyBoolean()))
                 .thenReturn(true);
+        when(DeviceConfig.getBoolean(anyString(), eq("config_store_binary_xml_write_enabled"),
+                anyBoolean())).thenReturn(true);
         when(DeviceConfig.getInt(anyString(), eq("health_monitor_short_connection_duration_thr_ms"),
                 anyInt())).thenReturn(30_000);
         when(DeviceConfig.getLong(anyString(), eq("abnormal_disconnection_reason_code_mask"),
@@ -398,6 +401,7 @@ public class DeviceConfigFacadeTest extends WifiBaseTest {
         assertEquals(9, mDeviceConfigFacade.getTxLinkSpeedLowThresholdMbps());
         assertEquals(10, mDeviceConfigFacade.getRxLinkSpeedLowThresholdMbps());
         assertEquals(true, mDeviceConfigFacade.isWifiBatterySaverEnabled());
+        assertEquals(true, mDeviceConfigFacade.isConfigStoreBinaryXmlWriteEnabled());
         assertEquals(30_000,
                 mDeviceConfigFacade.getHealthMonitorShortConnectionDurationThrMs());
         assertEquals(0xffff_fff3_0000_ffffL,
@@ -93,6 +93,97 @@ public class ScanDetailCacheTest {
         assertEquals(s4, mScanDetailCache.getScanDetail(TEST_BSSID_4));
     }
 
+    /**
+     * Verify that the cache is trimmed down to the trim size by evicting the least recently put
+     * entries once the max size is reached.
+     */
+    @Test
+    public void testTrimEvictsOldestEntries() {
+        ScanDetail[] scanDetails = new ScanDetail[TEST_MAX_SIZE + 1];
+        for (int i = 0; i < scanDetails.length; i++) {
+            setClockTime(1000 * (i + 1));
+            scanDetails[i] = createScanDetailForNetwork(mWifiConfiguration,
+                    String.format("0a:08:5c:67:89:%02x", i), TEST_RSSI, TEST_FREQUENCY);
+        }
+        for (int i = 0; i < TEST_MAX_SIZE; i++) {
+            mScanDetailCache.put(scanDetails[i]);
+        }
+        assertEquals(TEST_MAX_SIZE, mScanDetailCache.size());
+
+        // Adding one more entry should trim the cache down to |TEST_TRIM_SIZE| before adding it.
+        mScanDetailCache.put(scanDetails[TEST_MAX_SIZE]);
+        assertEquals(TEST_TRIM_SIZE + 1, mScanDetailCache.size());
+        for (int i = 0; i < TEST_MAX_SIZE - TEST_TRIM_SIZE; i++) {
+            assertNull(mScanDetailCache.getScanDetail(scanDetails[i].getBSSIDString()));
+        }
+        for (int i = TEST_MAX_SIZE - TEST_TRIM_SIZE; i <= TEST_MAX_SIZE; i++) {
+            assertEquals(scanDetails[i],
+                    mScanDetailCache.getScanDetail(scanDetails[i].getBSSIDString()));
+        }
+        assertEquals(scanDetails[TEST_MAX_SIZE].getScanResult(),
+                mScanDetailCache.getMostRecentScanResult());
+    }
+
+    /**
+     * Verify that re-putting an existing entry refreshes its eviction order and does not trigger
+     * a trim.
+     */
+    @Test
+    public void testPutExistingEntryRefreshesEvictionOrder() {
+        ScanDetail[] scanDetails = new ScanDetail[TEST_MAX_SIZE];
+        for (int i = 0; i < TEST_MAX_SIZE; i++) {
+            setClockTime(1000 * (i + 1));
+            scanDetails[i] = createScanDetailForNetwork(mWifiConfiguration,
+                    String.format("0a:08:5c:67:89:%02x", i), TEST_RSSI, TEST_FREQUENCY);
+            mScanDetailCache.put(scanDetails[i]);
+        }
+        // Refreshing the oldest entry should not trim the cache.
+        mScanDetailCache.put(scanDetails[0]);
+        assertEquals(TEST_MAX_SIZE, mScanDetailCache.size());
+
+        // Adding a new entry trims the cache, and the refreshed entry should survive.
+        setClockTime(1000 * (TEST_MAX_SIZE + 1));
+        ScanDetail newScanDetail = createScanDetailForNetwork(mWifiConfiguration,
+                "0a:08:5c:67:89:ff", TEST_RSSI, TEST_FREQUENCY);
+        mScanDetailCache.put(newScanDetail);
+        assertEquals(TEST_TRIM_SIZE + 1, mScanDetailCache.size());
+        assertEquals(scanDetails[0], mScanDetailCache.getScanDetail(
+                scanDetails[0].getBSSIDString()));
+        assertEquals(newScanDetail, mScanDetailCache.getScanDetail("0a:08:5c:67:89:ff"));
+    }
+
+    /**
+     * Verify that the most recent scan result is recomputed when it is removed or updated in
+     * place.
+     */
+    @Test
+    public void testGetMostRecentScanResultAfterRemoveAndUpdate() {
+        setClockTime(1000);
+        ScanDetail s1 = createScanDetailForNetwork(mWifiConfiguration, TEST_BSSID_1,
+                TEST_RSSI, TEST_FREQUENCY);
+        setClockTime(2000);
+        ScanDetail s2 = createScanDetailForNetwork(mWifiConfiguration, TEST_BSSID_2,
+                TEST_RSSI, TEST_FREQUENCY);
+        mScanDetailCache.put(s1);
+        mScanDetailCache.put(s2);
+        assertEquals(s2.getScanResult(), mScanDetailCache.getMostRecentScanResult());
+
+        mScanDetailCache.remove(TEST_BSSID_2);
+        assertEquals(s1.getScanResult(), mScanDetailCache.getMostRecentScanResult());
+
+        mScanDetailCache.put(s2);
+        assertEquals(s2.getScanResult(), mScanDetailCache.getMostRecentScanResult());
+
+        // Age s2 in place and re-put it, s1 should now be the most recent.
+        s2.getScanResult().seen = 500;
+        mScanDetailCache.put(s2);
+        assertEquals(s1.getScanResult(), mScanDetailCache.getMostRecentScanResult());
+
+        mScanDetailCache.remove(TEST_BSSID_1);
+        mScanDetailCache.remove(TEST_BSSID_2);
+        assertNull(mScanDetailCache.getMostRecentScanResult());
+    }
+
     private void setClockTime(long millis) {
         when(mClock.getUptimeSinceBootMillis()).thenReturn(millis);
         when(mClock.getWallClockMillis()).thenReturn(millis);
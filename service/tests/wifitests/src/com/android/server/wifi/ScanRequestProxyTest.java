@@ -350,6 +350,30 @@ public class ScanRequestProxyTest extends WifiBaseTest {
         verifyScanMetricsDataWasSet();
     }
 
+    /**
+     * Verify that all callers share the same read-only scan results until the next full scan.
+     */
+    @Test
+    public void testScanResultsSharedUntilNextScan() {
+        testStartScanSuccess();
+        mGlobalScanListenerArgumentCaptor.getValue().onResults(mTestScanDatas1);
+
+        List<ScanResult> scanResults = mScanRequestProxy.getScanResults();
+        assertSame(scanResults, mScanRequestProxy.getScanResults());
+        try {
+            scanResults.clear();
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        mGlobalScanListenerArgumentCaptor.getValue().onResults(mTestScanDatas2);
+        assertNotSame(scanResults, mScanRequestProxy.getScanResults());
+        ScanTestUtil.assertScanResultsEqualsAnyOrder(
+                mTestScanDatas2[0].getResults(),
+                mScanRequestProxy.getScanResults().stream().toArray(ScanResult[]::new));
+    }
+
     /**
      * Verify a successful scan request and processing of scan failure.
      */
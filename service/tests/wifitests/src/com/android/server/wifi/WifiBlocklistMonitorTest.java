@@ -941,6 +941,70 @@ public class WifiBlocklistMonitorTest {
         assertEquals(0, mWifiBlocklistMonitor.updateAndGetBssidBlocklist().size());
     }
 
+    /**
+     * Verify that unblocking or re-blocking a BSSID removes its previous entry from the blocklist
+     * expiry queue right away, instead of leaving it until its end time.
+     */
+    @Test
+    public void testBlocklistExpiryQueueDoesNotKeepStaleEntries() {
+        WifiConfiguration config = WifiConfigurationTestUtil.createPskNetwork(TEST_SSID_1);
+        when(mClock.getWallClockMillis()).thenReturn(0L);
+        long testDuration = TimeUnit.DAYS.toMillis(1);
+        for (int i = 0; i < 10; i++) {
+            mWifiBlocklistMonitor.blockBssidForDurationMs(TEST_BSSID_1, config, testDuration,
+                    TEST_FRAMEWORK_BLOCK_REASON, TEST_GOOD_RSSI);
+            assertEquals(1, mWifiBlocklistMonitor.getBlocklistExpiryQueueSize());
+            mWifiBlocklistMonitor.clearBssidBlocklistForSsid(TEST_SSID_1);
+            assertEquals(0, mWifiBlocklistMonitor.getBlocklistExpiryQueueSize());
+        }
+
+        // Blocking again for longer replaces the queued entry.
+        mWifiBlocklistMonitor.blockBssidForDurationMs(TEST_BSSID_1, config, testDuration,
+                TEST_FRAMEWORK_BLOCK_REASON, TEST_GOOD_RSSI);
+        mWifiBlocklistMonitor.blockBssidForDurationMs(TEST_BSSID_1, config, 2 * testDuration,
+                TEST_FRAMEWORK_BLOCK_REASON, TEST_GOOD_RSSI);
+        assertEquals(1, mWifiBlocklistMonitor.getBlocklistExpiryQueueSize());
+
+        // The entry is dropped once the block expires.
+        when(mClock.getWallClockMillis()).thenReturn(2 * testDuration + 1);
+        assertEquals(0, mWifiBlocklistMonitor.updateAndGetBssidBlocklist().size());
+        assertEquals(0, mWifiBlocklistMonitor.getBlocklistExpiryQueueSize());
+    }
+
+    /**
+     * Verify that extending the block of a BSSID keeps it blocked past its original end time,
+     * and that per-SSID counts only include BSSIDs of that SSID.
+     */
+    @Test
+    public void testBlockBssidForDurationMsExtendedBlockAndPerSsidCount() {
+        WifiConfiguration config1 = WifiConfigurationTestUtil.createPskNetwork(TEST_SSID_1);
+        WifiConfiguration config2 = WifiConfigurationTestUtil.createPskNetwork(TEST_SSID_2);
+        when(mClock.getWallClockMillis()).thenReturn(0L);
+        mWifiBlocklistMonitor.blockBssidForDurationMs(TEST_BSSID_1, config1, 1000L,
+                TEST_FRAMEWORK_BLOCK_REASON, TEST_GOOD_RSSI);
+        mWifiBlocklistMonitor.blockBssidForDurationMs(TEST_BSSID_2, config1, 2000L,
+                TEST_FRAMEWORK_BLOCK_REASON, TEST_GOOD_RSSI);
+        mWifiBlocklistMonitor.blockBssidForDurationMs(TEST_BSSID_3, config2, 3000L,
+                TEST_FRAMEWORK_BLOCK_REASON, TEST_GOOD_RSSI);
+        assertEquals(2, mWifiBlocklistMonitor.updateAndGetNumBlockedBssidsForSsid(TEST_SSID_1));
+        assertEquals(1, mWifiBlocklistMonitor.updateAndGetNumBlockedBssidsForSsid(TEST_SSID_2));
+
+        // Extend the block of TEST_BSSID_1 past the end of its original duration.
+        when(mClock.getWallClockMillis()).thenReturn(500L);
+        mWifiBlocklistMonitor.blockBssidForDurationMs(TEST_BSSID_1, config1, 5000L,
+                TEST_FRAMEWORK_BLOCK_REASON, TEST_GOOD_RSSI);
+
+        when(mClock.getWallClockMillis()).thenReturn(2001L);
+        assertEquals(Set.of(TEST_BSSID_1, TEST_BSSID_3),
+                mWifiBlocklistMonitor.updateAndGetBssidBlocklist());
+        assertEquals(1, mWifiBlocklistMonitor.updateAndGetNumBlockedBssidsForSsid(TEST_SSID_1));
+
+        when(mClock.getWallClockMillis()).thenReturn(5501L);
+        assertEquals(0, mWifiBlocklistMonitor.updateAndGetNumBlockedBssidsForSsid(TEST_SSID_1));
+        assertEquals(0, mWifiBlocklistMonitor.updateAndGetNumBlockedBssidsForSsid(TEST_SSID_2));
+        assertEquals(0, mWifiBlocklistMonitor.updateAndGetBssidBlocklist().size());
+    }
+
     /**
      * Verify that invalid inputs are handled and result in no-op.
      */
@@ -20,7 +20,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
@@ -339,7 +341,8 @@ public class WifiConfigManagerTest extends WifiBaseTest {
                 WifiManager.WIFI_FEATURE_WPA3_SAE | WifiManager.WIFI_FEATURE_OWE);
         when(mWifiGlobals.isWpa3SaeUpgradeEnabled()).thenReturn(true);
         when(mWifiGlobals.isOweUpgradeEnabled()).thenReturn(true);
-        when(WifiConfigStore.createUserFiles(anyInt(), anyBoolean())).thenReturn(mock(List.class));
+        when(WifiConfigStore.createUserFiles(anyInt(), anyBoolean(), anyInt()))
+                .thenReturn(mock(List.class));
         when(mTelephonyManager.createForSubscriptionId(anyInt())).thenReturn(mDataTelephonyManager);
         when(mBuildProperties.isUserBuild()).thenReturn(false);
     }
@@ -1970,6 +1973,29 @@ public class WifiConfigManagerTest extends WifiBaseTest {
                 WifiConfigurationTestUtil.createEapSuiteBNetwork());
     }
 
+    /**
+     * Verifies that
+     * {@link WifiConfigManager#getInternalSavedNetworkForScanDetailAndCache(ScanDetail)}
+     * returns the internal network without copying it and caches the provided scan detail.
+     */
+    @Test
+    public void testMatchScanDetailToInternalNetworkAndCache() {
+        WifiConfiguration network = WifiConfigurationTestUtil.createPskNetwork();
+        verifyAddNetworkToWifiConfigManager(network);
+        ScanDetail scanDetail = createScanDetailForNetwork(network);
+
+        WifiConfiguration internalNetwork =
+                mWifiConfigManager.getInternalSavedNetworkForScanDetailAndCache(scanDetail);
+        assertNotNull(internalNetwork);
+        assertEquals(network.networkId, internalNetwork.networkId);
+        assertSame(internalNetwork,
+                mWifiConfigManager.getInternalSavedNetworkForScanDetailAndCache(scanDetail));
+        assertNotSame(internalNetwork,
+                mWifiConfigManager.getSavedNetworkForScanDetailAndCache(scanDetail));
+        assertEquals(1,
+                mWifiConfigManager.getScanDetailCacheForNetwork(network.networkId).size());
+    }
+
     /**
      * Verifies that scan details with wrong SSID/authentication types are not matched using
      * {@link WifiConfigManager#getSavedNetworkForScanDetailAndCache(ScanDetail)}
@@ -35,6 +35,7 @@ import androidx.test.filters.SmallTest;
 
 import com.android.dx.mockito.inline.extended.ExtendedMockito;
 import com.android.internal.util.FastPrintWriter;
+import com.android.modules.utils.BinaryXmlSerializer;
 import com.android.server.wifi.WifiConfigStore.StoreData;
 import com.android.server.wifi.WifiConfigStore.StoreFile;
 import com.android.server.wifi.util.ArrayUtils;
@@ -1070,6 +1071,129 @@ public class WifiConfigStoreTest extends WifiBaseTest {
         verify(userStoreFile2, never()).readRawData();
     }
 
+    /**
+     * Tests the read API behaviour after a write to store files using the binary XML format.
+     * Expected behaviour: The files are written in binary format and the read should return the
+     * same data that was last written.
+     */
+    @Test
+    public void testReadAfterWriteWithBinaryFormat() throws Exception {
+        MockStoreFile sharedStore = new MockStoreFile(WifiConfigStore.STORE_FILE_SHARED_GENERAL,
+                WifiConfigStore.STORE_FILE_FORMAT_BINARY_XML);
+        MockStoreFile userStore = new MockStoreFile(WifiConfigStore.STORE_FILE_USER_GENERAL,
+                WifiConfigStore.STORE_FILE_FORMAT_BINARY_XML);
+        mWifiConfigStore = new WifiConfigStore(mContext, new Handler(mLooper.getLooper()), mClock,
+                mWifiMetrics, Arrays.asList(sharedStore));
+        mWifiConfigStore.setUserStores(Arrays.asList(userStore));
+        mWifiConfigStore.registerStoreData(mSharedStoreData);
+        mWifiConfigStore.registerStoreData(mUserStoreData);
+
+        mUserStoreData.setData(TEST_USER_DATA);
+        mSharedStoreData.setData(TEST_SHARE_DATA);
+        mWifiConfigStore.write(true);
+        assertTrue(sharedStore.isStoreWritten());
+        assertTrue(userStore.isStoreWritten());
+        assertBinaryXml(sharedStore.getStoreBytes());
+        assertBinaryXml(userStore.getStoreBytes());
+
+        mUserStoreData.setData(null);
+        mSharedStoreData.setData(null);
+        mWifiConfigStore.read();
+        assertEquals(TEST_USER_DATA, mUserStoreData.getData());
+        assertEquals(TEST_SHARE_DATA, mSharedStoreData.getData());
+        // Already in the configured format, nothing to migrate.
+        assertFalse(sharedStore.isFormatMigrationPending());
+        assertFalse(mAlarmManager.isPending(WifiConfigStore.BUFFERED_WRITE_ALARM_TAG));
+    }
+
+    /**
+     * Verify that a store file read in XML format is migrated to the binary XML format after the
+     * read, even if no store data has new data to serialize.
+     */
+    @Test
+    public void testMigrateXmlStoreFileToBinaryFormatOnRead() throws Exception {
+        // Write the data in XML format first.
+        mWifiConfigStore.registerStoreData(mSharedStoreData);
+        mSharedStoreData.setData(TEST_SHARE_DATA);
+        mWifiConfigStore.write(true);
+        byte[] xmlBytes = mSharedStore.getStoreBytes();
+
+        MockStoreFile binaryStore = new MockStoreFile(WifiConfigStore.STORE_FILE_SHARED_GENERAL,
+                WifiConfigStore.STORE_FILE_FORMAT_BINARY_XML);
+        binaryStore.storeRawDataToWrite(xmlBytes);
+        MockStoreData sharedStoreData =
+                new MockStoreData(WifiConfigStore.STORE_FILE_SHARED_GENERAL);
+        sharedStoreData.setHasAnyNewData(false);
+        mWifiConfigStore = new WifiConfigStore(mContext, new Handler(mLooper.getLooper()), mClock,
+                mWifiMetrics, Arrays.asList(binaryStore));
+        mWifiConfigStore.registerStoreData(sharedStoreData);
+
+        mWifiConfigStore.read();
+        assertEquals(TEST_SHARE_DATA, sharedStoreData.getData());
+        assertTrue(binaryStore.isFormatMigrationPending());
+        assertBinaryXml(binaryStore.getStoreBytes());
+        assertTrue(mAlarmManager.isPending(WifiConfigStore.BUFFERED_WRITE_ALARM_TAG));
+
+        mAlarmManager.dispatch(WifiConfigStore.BUFFERED_WRITE_ALARM_TAG);
+        mLooper.dispatchAll();
+        assertTrue(binaryStore.isStoreWritten());
+
+        // The migrated file should read back the same data.
+        sharedStoreData.setData(null);
+        mWifiConfigStore.read();
+        assertEquals(TEST_SHARE_DATA, sharedStoreData.getData());
+        assertFalse(binaryStore.isFormatMigrationPending());
+    }
+
+    private static void assertBinaryXml(byte[] data) {
+        byte[] magic = BinaryXmlSerializer.PROTOCOL_MAGIC_VERSION_0;
+        assertNotNull(data);
+        assertArrayEquals(magic, Arrays.copyOf(data, magic.length));
+    }
+
+    /**
+     * Verify that the store file skips rewriting the file when the data to write matches the
+     * contents last written, and writes again once the data changes.
+     */
+    @Test
+    public void testStoreFileSkipsWriteOfUnchangedData() throws Exception {
+        File file = File.createTempFile("WifiConfigStoreTest", ".xml");
+        try {
+            StoreFile storeFile = new StoreFile(file,
+                    WifiConfigStore.STORE_FILE_SHARED_GENERAL, UserHandle.ALL, null);
+            byte[] data = TEST_SHARE_DATA.getBytes(StandardCharsets.UTF_8);
+
+            storeFile.storeRawDataToWrite(data);
+            storeFile.writeBufferedRawData();
+            assertEquals(1, storeFile.getNumWrites());
+            assertEquals(0, storeFile.getNumSkippedWrites());
+            assertEquals(data.length, storeFile.getNumBytesWritten());
+
+            // Same data, the write should be skipped.
+            storeFile.storeRawDataToWrite(data.clone());
+            storeFile.writeBufferedRawData();
+            assertEquals(1, storeFile.getNumWrites());
+            assertEquals(1, storeFile.getNumSkippedWrites());
+
+            // New data, the write should go through.
+            byte[] newData = TEST_USER_DATA.getBytes(StandardCharsets.UTF_8);
+            storeFile.storeRawDataToWrite(newData);
+            storeFile.writeBufferedRawData();
+            assertEquals(2, storeFile.getNumWrites());
+            assertEquals(data.length + newData.length, storeFile.getNumBytesWritten());
+            assertArrayEquals(newData, storeFile.readRawData());
+
+            // If the file goes missing, the same data should be written again.
+            file.delete();
+            storeFile.storeRawDataToWrite(newData);
+            storeFile.writeBufferedRawData();
+            assertEquals(3, storeFile.getNumWrites());
+            assertArrayEquals(newData, storeFile.readRawData());
+        } finally {
+            file.delete();
+        }
+    }
+
     /**
      * Mock Store File to redirect all file writes from WifiConfigStore to local buffers.
      * This can be used to examine the data output by WifiConfigStore.
@@ -1082,6 +1206,11 @@ public class WifiConfigStoreTest extends WifiBaseTest {
             super(new File("MockStoreFile"), fileId, UserHandle.ALL, mEncryptionUtil);
         }
 
+        MockStoreFile(@WifiConfigStore.StoreFileId int fileId,
+                @WifiConfigStore.StoreFileFormat int format) {
+            super(new File("MockStoreFile"), fileId, UserHandle.ALL, mEncryptionUtil, format);
+        }
+
         @Override
         public byte[] readRawData() {
             return mStoreBytes;
@@ -4840,6 +4840,36 @@ public class WifiConnectivityManagerTest extends WifiBaseTest {
                 .fetchChannelSetForPartialScan(3, CHANNEL_CACHE_AGE_MINS));
     }
 
+    /**
+     * Verify that repeated partial scan channel fetches over many saved networks keep
+     * returning every network's cached frequencies from a real WifiScoreCard.
+     */
+    @Test
+    public void testFetchChannelSetForPartialScanWithManySavedNetworks() {
+        WifiScoreCard scoreCard = new WifiScoreCard(mClock, "some seed", mDeviceConfigFacade,
+                mContext);
+        scoreCard.installMemoryStore(mock(WifiScoreCard.MemoryStore.class));
+        mWifiScoreCard = scoreCard;
+        mWifiConnectivityManager = createConnectivityManager();
+
+        List<WifiConfiguration> networks = new ArrayList<>();
+        Set<Integer> expectedFreqs = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            WifiConfiguration config = WifiConfigurationTestUtil.createOpenNetwork();
+            config.getNetworkSelectionStatus().setHasEverConnected(true);
+            networks.add(config);
+            scoreCard.lookupNetwork(config.SSID).addFrequency(TEST_FREQUENCY_1 + i);
+            expectedFreqs.add(TEST_FREQUENCY_1 + i);
+        }
+        when(mWifiConfigManager.getSavedNetworks(anyInt()))
+                .thenAnswer(invocation -> new ArrayList<>(networks));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expectedFreqs, mWifiConnectivityManager
+                    .fetchChannelSetForPartialScan(0, CHANNEL_CACHE_AGE_MINS));
+        }
+    }
+
     /**
      * Verifies the creation of channel list using
      * {@link WifiConnectivityManager#fetchChannelSetForNetworkForPartialScan(int)}.
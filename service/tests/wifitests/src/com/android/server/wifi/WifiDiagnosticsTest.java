@@ -39,6 +39,7 @@ import android.app.test.MockAnswerUtil.AnswerWithArguments;
 import android.content.Context;
 import android.os.BugreportManager;
 import android.os.test.TestLooper;
+import android.util.Base64;
 
 import androidx.test.filters.SmallTest;
 
@@ -52,13 +53,16 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileDescriptor;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.regex.Pattern;
+import java.util.zip.Deflater;
 
 /**
  * Unit tests for {@link WifiDiagnostics}.
@@ -868,6 +872,80 @@ public class WifiDiagnosticsTest extends WifiBaseTest {
         assertTrue(sw.toString().contains(WifiDiagnostics.FIRMWARE_DUMP_SECTION_HEADER));
     }
 
+    /**
+     * Verifies that a firmware dump spanning several encoding blocks is written as if it had been
+     * encoded all at once.
+     */
+    @Test
+    public void dumpEncodesLargeFirmwareMemoryDumpInBlocks() {
+        // Random data does not compress, so the dump is encoded as is.
+        byte[] fwMemoryDump = new byte[10000];
+        new Random(42).nextBytes(fwMemoryDump);
+        when(mWifiNative.getFwMemoryDump()).thenReturn(fwMemoryDump);
+
+        mWifiDiagnostics.enableVerboseLogging(true /* verbose enabled */, true);
+        mWifiDiagnostics.startLogging(STA_IF_NAME);
+        mWifiDiagnostics.triggerBugReportDataCapture(WifiDiagnostics.REPORT_REASON_NONE);
+        mTestLooper.dispatchAll();
+
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw);
+        mWifiDiagnostics.dump(new FileDescriptor(), pw, new String[]{});
+        assertTrue(sw.toString().contains(WifiDiagnostics.FIRMWARE_DUMP_SECTION_HEADER + "\n"
+                + Base64.encodeToString(fwMemoryDump, Base64.DEFAULT)));
+    }
+
+    /**
+     * Verifies that compressible ring buffer data made of several chunks is written exactly as it
+     * was when the chunks were concatenated and compressed in one go.
+     */
+    @Test
+    public void dumpCompressesMultiChunkRingBufferDataAsOneStream() throws Exception {
+        mWifiDiagnostics.enableVerboseLogging(true /* verbose enabled */, true);
+        mWifiDiagnostics.startLogging(STA_IF_NAME);
+
+        // Four bits of entropy per byte: compressible, but still several Base64 blocks long.
+        Random random = new Random(42);
+        byte[][] chunks = new byte[3][8000];
+        ByteArrayOutputStream concatenated = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks) {
+            for (int i = 0; i < chunk.length; i++) {
+                chunk[i] = (byte) random.nextInt(16);
+            }
+            mWifiDiagnostics.onRingBufferData(mFakeRbs, chunk);
+            concatenated.write(chunk);
+        }
+        mWifiDiagnostics.triggerBugReportDataCapture(WifiDiagnostics.REPORT_REASON_NONE);
+        mTestLooper.dispatchAll();
+        assertEquals(chunks.length, getLoggerRingBufferData().length);
+
+        byte[] input = concatenated.toByteArray();
+        byte[] compressed = deflate(input);
+        assertTrue(compressed.length < input.length);
+
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw);
+        mWifiDiagnostics.dump(new FileDescriptor(), pw, new String[]{});
+        assertTrue(sw.toString().contains("ring-buffer = " + FAKE_RING_BUFFER_NAME + "\n"
+                + Base64.encodeToString(compressed, Base64.DEFAULT) + "\n"));
+    }
+
+    /** Deflates |input| the way bug report sections were compressed before streaming. */
+    private static byte[] deflate(byte[] input) {
+        Deflater compressor = new Deflater();
+        compressor.setLevel(Deflater.BEST_SPEED);
+        compressor.setInput(input);
+        compressor.finish();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(input.length);
+        final byte[] buf = new byte[1024];
+        while (!compressor.finished()) {
+            int count = compressor.deflate(buf);
+            bos.write(buf, 0, count);
+        }
+        compressor.end();
+        return bos.toByteArray();
+    }
+
     /** Verifies that the dump skips firmware memory, if firmware memory was not provided by HAL. */
     @Test
     public void dumpOmitsFirmwareMemoryDumpIfUnavailable() {
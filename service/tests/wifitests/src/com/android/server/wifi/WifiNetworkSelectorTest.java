@@ -1336,6 +1336,51 @@ public class WifiNetworkSelectorTest extends WifiBaseTest {
         verify(mWifiMetrics, atLeastOnce()).setNetworkSelectorExperimentId(anyInt());
     }
 
+    /**
+     * Tests that the throughput of a scan detail nominated by several nominators is predicted
+     * only once per round of candidate collection.
+     */
+    @Test
+    public void testThroughputPredictedOncePerScanDetail() {
+        // first placeholder Nominator is registered in setup, returns index 0
+        mWifiNetworkSelector.registerNetworkNominator(new PlaceholderNominator(0,
+                WifiNetworkSelector.NetworkNominator.NOMINATOR_ID_SCORED));
+        mWifiNetworkSelector.registerNetworkNominator(new PlaceholderNominator(0,
+                WifiNetworkSelector.NetworkNominator.NOMINATOR_ID_SAVED));
+
+        String[] ssids = {"\"test1\"", "\"test2\""};
+        String[] bssids = {"6c:f3:7f:ae:8c:f3", "6c:f3:7f:ae:8c:f4"};
+        int[] freqs = {2437, 5180};
+        String[] caps = {"[WPA2-PSK][ESS]", "[WPA2-PSK][ESS]"};
+        int[] levels = {mThresholdMinimumRssi2G + RSSI_BUMP, mThresholdMinimumRssi5G + RSSI_BUMP};
+        int[] securities = {SECURITY_PSK, SECURITY_PSK};
+
+        ScanDetailsAndWifiConfigs scanDetailsAndConfigs =
+                WifiNetworkSelectorTestUtil.setupScanDetailsAndConfigStore(ssids, bssids,
+                        freqs, caps, levels, securities, mWifiConfigManager, mClock);
+        List<ScanDetail> scanDetails = scanDetailsAndConfigs.getScanDetails();
+        when(mThroughputPredictor.predictThroughput(any(), anyInt(), anyInt(), anyInt(),
+                anyInt(), anyInt(), anyInt(), anyInt(), anyBoolean())).thenReturn(100);
+
+        List<WifiCandidates.Candidate> candidates = mWifiNetworkSelector.getCandidatesFromScan(
+                scanDetails, new HashSet<>(),
+                Arrays.asList(new ClientModeManagerState(TEST_IFACE_NAME, false, true, mWifiInfo)),
+                false, true, true, Collections.emptySet(), false);
+
+        assertEquals(1, candidates.size());
+        assertEquals(100, candidates.get(0).getPredictedThroughputMbps());
+        verify(mThroughputPredictor, times(1)).predictThroughput(any(), anyInt(), anyInt(),
+                anyInt(), eq(2437), anyInt(), anyInt(), anyInt(), anyBoolean());
+
+        // A new round of candidate collection predicts the throughput again.
+        mWifiNetworkSelector.getCandidatesFromScan(
+                scanDetails, new HashSet<>(),
+                Arrays.asList(new ClientModeManagerState(TEST_IFACE_NAME, false, true, mWifiInfo)),
+                false, true, true, Collections.emptySet(), false);
+        verify(mThroughputPredictor, times(2)).predictThroughput(any(), anyInt(), anyInt(),
+                anyInt(), eq(2437), anyInt(), anyInt(), anyInt(), anyBoolean());
+    }
+
     /**
      * Wifi network selector does not perform network selection when current network has high
      * quality but no active stream
@@ -75,6 +75,8 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -880,6 +882,65 @@ public class WifiScoreCardTest extends WifiBaseTest {
         verify(mMemoryStore, times(3)).read(any(), any(), any()); // Assumes target size < 253
     }
 
+    /**
+     * Test that per-network entries, including their in-memory frequency timestamps,
+     * are kept while many networks are looked up, and that dump reports the lookups.
+     */
+    @Test
+    public void testNetworksAreNotEvicted() throws Exception {
+        mWifiScoreCard.installMemoryStore(mMemoryStore);
+        for (int i = 0; i < 100; i++) {
+            mWifiScoreCard.lookupNetwork("\"net" + i + "\"").addFrequency(2412 + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            PerNetwork perNetwork = mWifiScoreCard.fetchByNetwork("\"net" + i + "\"");
+            assertNotNull(perNetwork);
+            assertEquals(Arrays.asList(2412 + i), perNetwork.getFrequencies(1000L));
+        }
+        verify(mMemoryStore, times(100)).read(any(), any(), any());
+
+        StringWriter sw = new StringWriter();
+        mWifiScoreCard.dump(null, new PrintWriter(sw), null);
+        assertTrue(sw.toString().contains("Network entries: 100 hits: 0 misses: 100"));
+    }
+
+    /**
+     * Test that per-BSSID entries that are not referenced between eviction rounds are evicted.
+     */
+    @Test
+    public void testBssidsAreEvicted() throws Exception {
+        mWifiScoreCard.installMemoryStore(mMemoryStore);
+        mWifiScoreCard.setBssidInMemoryTargetSize(3);
+        String ssid = TEST_SSID_1.toString();
+        // Every third new entry starts an eviction round; the second and third rounds evict
+        // the three entries that were not referenced again since the previous round.
+        for (int i = 0; i < 10; i++) {
+            mWifiScoreCard.lookupBssid(ssid, "aa:bb:cc:dd:ee:0" + i);
+        }
+        assertNull(mWifiScoreCard.fetchByBssid(MacAddress.fromString("aa:bb:cc:dd:ee:00")));
+        assertNull(mWifiScoreCard.fetchByBssid(MacAddress.fromString("aa:bb:cc:dd:ee:05")));
+        assertNotNull(mWifiScoreCard.fetchByBssid(MacAddress.fromString("aa:bb:cc:dd:ee:06")));
+        assertNotNull(mWifiScoreCard.fetchByBssid(MacAddress.fromString("aa:bb:cc:dd:ee:09")));
+
+        // A hit on an entry still in memory, and a miss on an evicted one.
+        mWifiScoreCard.lookupBssid(ssid, "aa:bb:cc:dd:ee:09");
+        mWifiScoreCard.lookupBssid(ssid, "aa:bb:cc:dd:ee:00");
+        verify(mMemoryStore, times(11)).read(any(), any(), any());
+
+        StringWriter sw = new StringWriter();
+        mWifiScoreCard.dump(null, new PrintWriter(sw), null);
+        assertTrue(sw.toString().contains(
+                "BSSID entries: 5 (target 3) hits: 1 misses: 11 evictions: 6"));
+    }
+
+    /**
+     * Test that the per-BSSID in-memory target size must be positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetBssidInMemoryTargetSizeRejectsZero() throws Exception {
+        mWifiScoreCard.setBssidInMemoryTargetSize(0);
+    }
+
     private void makeAssocTimeOutExample() {
         mWifiScoreCard.noteConnectionAttempt(mWifiInfo, -53, mWifiInfo.getSSID());
         millisecondsPass(1000);
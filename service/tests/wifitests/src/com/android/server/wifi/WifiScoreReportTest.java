@@ -73,6 +73,7 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.verification.VerificationMode;
 
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.List;
 
@@ -850,6 +851,30 @@ public class WifiScoreReportTest extends WifiBaseTest {
         verify(mPrintWriter, atMost(3603)).println(anyString());
     }
 
+    /**
+     *  Test that the data logging history keeps the newest entries, oldest first, once it is
+     *  full.
+     */
+    @Test
+    public void testDataLoggingKeepsNewestEntries() throws Exception {
+        final int entries = WifiScoreReport.DUMPSYS_ENTRY_COUNT_LIMIT;
+        final int extra = 25;
+        for (int i = 0; i < entries + extra; i++) {
+            mWifiInfo.setRssi(-80 + i % 30);
+            mWifiInfo.setLinkSpeed(300);
+            mWifiInfo.setFrequency(5220);
+            mWifiScoreReport.calculateAndReportScore();
+        }
+        StringWriter sw = new StringWriter();
+        mWifiScoreReport.dump(null, new PrintWriter(sw), null);
+        String[] lines = sw.toString().split("\n");
+        assertEquals(entries + 3, lines.length);
+        for (int k = 0; k < entries; k++) {
+            int i = extra + k;
+            assertEquals(Integer.toString(-80 + i % 30), lines[1 + k].split(",")[3]);
+        }
+    }
+
     /**
      * Test for staying at below transition score for a certain period of time.
      */
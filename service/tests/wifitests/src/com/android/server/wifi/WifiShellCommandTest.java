@@ -60,6 +60,7 @@ import android.os.Process;
 
 import androidx.test.filters.SmallTest;
 
+import com.android.modules.utils.ParceledListSlice;
 import com.android.modules.utils.build.SdkLevel;
 import com.android.server.wifi.coex.CoexManager;
 
@@ -72,6 +73,7 @@ import org.mockito.MockitoAnnotations;
 
 import java.io.FileDescriptor;
 import java.util.Arrays;
+import java.util.Collections;
 
 /**
  * Unit tests for {@link com.android.server.wifi.WifiShellCommand}.
@@ -123,6 +125,8 @@ public class WifiShellCommandTest extends WifiBaseTest {
         when(mWifiInjector.getWifiNetworkFactory()).thenReturn(mWifiNetworkFactory);
         when(mWifiInjector.getScanRequestProxy()).thenReturn(mScanRequestProxy);
         when(mContext.getSystemService(ConnectivityManager.class)).thenReturn(mConnectivityManager);
+        when(mWifiService.getScanResults(any(), any()))
+                .thenReturn(new ParceledListSlice<>(Collections.emptyList()));
 
         mWifiShellCommand = new WifiShellCommand(mWifiInjector, mWifiService, mContext,
                 mWifiGlobals, mWifiThreadRunner);
@@ -140,6 +140,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Unit tests for {@link com.android.server.wifi.WifiVendorHal}.
@@ -1041,6 +1043,49 @@ public class WifiVendorHalTest extends WifiBaseTest {
         verify(mIWifiStaIfaceV15).getLinkLayerStats_1_5(any());
     }
 
+    /**
+     * Test that polling link layer stats on one interface is not blocked by a slow link layer
+     * stats HAL call on another interface.
+     */
+    @Test
+    public void testLinkLayerStatsNotBlockedBySlowHalCallOnOtherIface() throws Exception {
+        android.hardware.wifi.V1_5.IWifiStaIface slowIface =
+                mock(android.hardware.wifi.V1_5.IWifiStaIface.class);
+        mWifiVendorHal = spy(mWifiVendorHal);
+        when(mWifiVendorHal.getWifiStaIfaceForV1_5Mockable(TEST_IFACE_NAME))
+                .thenReturn(mIWifiStaIfaceV15);
+        when(mWifiVendorHal.getWifiStaIfaceForV1_5Mockable(TEST_IFACE_NAME_1))
+                .thenReturn(slowIface);
+        CountDownLatch slowCallStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlowCall = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            slowCallStarted.countDown();
+            releaseSlowCall.await();
+            return null;
+        }).when(slowIface).getLinkLayerStats_1_5(any());
+
+        Thread slowPoll = new Thread(
+                () -> mWifiVendorHal.getWifiLinkLayerStats(TEST_IFACE_NAME_1));
+        Thread statsPoll = new Thread(
+                () -> mWifiVendorHal.getWifiLinkLayerStats(TEST_IFACE_NAME));
+        slowPoll.start();
+        boolean statsPollBlocked;
+        try {
+            assertTrue(slowCallStarted.await(1, TimeUnit.SECONDS));
+            statsPoll.start();
+            statsPoll.join(TimeUnit.SECONDS.toMillis(1));
+            statsPollBlocked = statsPoll.isAlive();
+        } finally {
+            releaseSlowCall.countDown();
+            slowPoll.join();
+            statsPoll.join();
+        }
+
+        assertFalse(statsPollBlocked);
+        verify(mIWifiStaIfaceV15).getLinkLayerStats_1_5(any());
+        verify(slowIface).getLinkLayerStats_1_5(any());
+    }
+
     /**
      * Test that link layer stats are not enabled and harmless in AP mode
      *
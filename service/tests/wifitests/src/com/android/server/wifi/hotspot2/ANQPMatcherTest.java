@@ -42,6 +42,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -74,6 +75,25 @@ public class ANQPMatcherTest extends WifiBaseTest {
         assertTrue(ANQPMatcher.matchDomainName(element, fqdn, null, null));
     }
 
+    /**
+     * Verify that domain name match using pre-split FQDN labels succeeds for a sub-domain of the
+     * FQDN and fails for a parent domain of it.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void matchDomainNameUsingFqdnLabels() throws Exception {
+        List<String> fqdnLabels = Utils.splitDomainOrEmpty("test.com");
+        DomainNameElement subDomainElement =
+                new DomainNameElement(Arrays.asList("hotspot.Test.com"));
+        DomainNameElement parentDomainElement = new DomainNameElement(Arrays.asList("com"));
+        assertTrue(ANQPMatcher.matchDomainNameLabels(subDomainElement, fqdnLabels, null, null));
+        assertFalse(ANQPMatcher.matchDomainNameLabels(
+                parentDomainElement, fqdnLabels, null, null));
+        assertFalse(ANQPMatcher.matchDomainNameLabels(
+                subDomainElement, Utils.splitDomainOrEmpty(null), null, null));
+    }
+
     /**
      * Verify that domain name match will succeed when the specified IMSI parameter and IMSI list
      * matches a 3GPP network domain in the Domain Name ANQP element.
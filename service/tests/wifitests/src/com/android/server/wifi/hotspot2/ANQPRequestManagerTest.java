@@ -21,6 +21,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyObject;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -372,4 +373,84 @@ public class ANQPRequestManagerTest extends WifiBaseTest {
         when(mHandler.requestVenueUrlAnqp(TEST_BSSID)).thenReturn(true);
         assertTrue(mManager.requestVenueUrlAnqpElement(TEST_BSSID, TEST_ANQP_KEY));
     }
+
+    /**
+     * Verify that a request to an AP sharing the network key of an in-flight request is not sent,
+     * and that it is allowed again once the in-flight request completes.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void requestANQPElementsCoalescedForSameNetworkKey() throws Exception {
+        long otherBssid = TEST_BSSID + 1;
+        ANQPNetworkKey sharedKey = ANQPNetworkKey.buildKey("TestSSID", TEST_BSSID, 0x1234L, 1);
+        when(mClock.getElapsedSinceBootMillis()).thenReturn(0L);
+        when(mHandler.requestANQP(anyLong(), eq(R1_ANQP_WITHOUT_RC))).thenReturn(true);
+        assertTrue(mManager.requestANQPElements(TEST_BSSID, sharedKey, false,
+                NetworkDetail.HSRelease.R1));
+
+        assertFalse(mManager.requestANQPElements(otherBssid, sharedKey, false,
+                NetworkDetail.HSRelease.R1));
+        verify(mHandler, never()).requestANQP(eq(otherBssid), anyObject());
+
+        assertEquals(sharedKey, mManager.onRequestCompleted(TEST_BSSID, false));
+        assertTrue(mManager.requestANQPElements(otherBssid, sharedKey, false,
+                NetworkDetail.HSRelease.R1));
+    }
+
+    /**
+     * Verify that an unanswered in-flight request stops blocking requests to other APs sharing
+     * the same network key after the timeout.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void requestANQPElementsAfterInFlightRequestTimeout() throws Exception {
+        long otherBssid = TEST_BSSID + 1;
+        ANQPNetworkKey sharedKey = ANQPNetworkKey.buildKey("TestSSID", TEST_BSSID, 0x1234L, 1);
+        when(mClock.getElapsedSinceBootMillis()).thenReturn(0L);
+        when(mHandler.requestANQP(anyLong(), eq(R1_ANQP_WITHOUT_RC))).thenReturn(true);
+        assertTrue(mManager.requestANQPElements(TEST_BSSID, sharedKey, false,
+                NetworkDetail.HSRelease.R1));
+
+        when(mClock.getElapsedSinceBootMillis()).thenReturn(
+                (long) ANQPRequestManager.IN_FLIGHT_QUERY_TIMEOUT_MILLISECONDS);
+        assertTrue(mManager.requestANQPElements(otherBssid, sharedKey, false,
+                NetworkDetail.HSRelease.R1));
+    }
+
+    /**
+     * Verify that a late completion of a timed out request does not clear the in-flight marker
+     * of a newer request for the same network key sent to another AP.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void lateCompletionDoesNotClearNewerInFlightRequest() throws Exception {
+        long otherBssid = TEST_BSSID + 1;
+        long thirdBssid = TEST_BSSID + 2;
+        ANQPNetworkKey sharedKey = ANQPNetworkKey.buildKey("TestSSID", TEST_BSSID, 0x1234L, 1);
+        when(mClock.getElapsedSinceBootMillis()).thenReturn(0L);
+        when(mHandler.requestANQP(anyLong(), eq(R1_ANQP_WITHOUT_RC))).thenReturn(true);
+        assertTrue(mManager.requestANQPElements(TEST_BSSID, sharedKey, false,
+                NetworkDetail.HSRelease.R1));
+
+        // The first request times out and a retry is sent to another AP.
+        when(mClock.getElapsedSinceBootMillis()).thenReturn(
+                (long) ANQPRequestManager.IN_FLIGHT_QUERY_TIMEOUT_MILLISECONDS);
+        assertTrue(mManager.requestANQPElements(otherBssid, sharedKey, false,
+                NetworkDetail.HSRelease.R1));
+
+        // The late completion of the first request still returns its key, but the retry stays
+        // in flight.
+        assertEquals(sharedKey, mManager.onRequestCompleted(TEST_BSSID, false));
+        assertFalse(mManager.requestANQPElements(thirdBssid, sharedKey, false,
+                NetworkDetail.HSRelease.R1));
+        verify(mHandler, never()).requestANQP(eq(thirdBssid), anyObject());
+
+        // The completion of the retry clears it.
+        assertEquals(sharedKey, mManager.onRequestCompleted(otherBssid, true));
+        assertTrue(mManager.requestANQPElements(thirdBssid, sharedKey, false,
+                NetworkDetail.HSRelease.R1));
+    }
 }
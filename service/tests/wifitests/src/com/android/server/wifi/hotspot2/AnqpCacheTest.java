@@ -178,4 +178,38 @@ public class AnqpCacheTest extends WifiBaseTest {
         assertTrue(data.getElements().get(Constants.ANQPElementType.ANQPVenueUrl)
                 .equals(venueUrlElement));
     }
+
+    /**
+     * Verify that the least recently used entry is evicted once the cache is full.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void evictLeastRecentlyUsedEntryWhenFull() throws Exception {
+        ANQPNetworkKey key1 = new ANQPNetworkKey("test1", 0L, 0L, 1);
+        ANQPNetworkKey key2 = new ANQPNetworkKey("test2", 0L, 0L, 1);
+        ANQPNetworkKey key3 = new ANQPNetworkKey("test3", 0L, 0L, 1);
+        mCache = new AnqpCache(mClock, 2);
+        mCache.addEntry(key1, null);
+        mCache.addEntry(key2, null);
+        // Access the first entry so that the second one becomes the least recently used.
+        assertNotNull(mCache.getEntry(key1));
+
+        mCache.addEntry(key3, null);
+        assertNotNull(mCache.getEntry(key1));
+        assertNull(mCache.getEntry(key2));
+        assertNotNull(mCache.getEntry(key3));
+    }
+
+    /**
+     * Verify that an expired entry is not returned even if the cache has not been swept yet.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void getExpiredEntryReturnsNull() throws Exception {
+        mCache.addEntry(ENTRY_KEY, null);
+        when(mClock.getElapsedSinceBootMillis()).thenReturn(ANQPData.DATA_LIFETIME_MILLISECONDS);
+        assertNull(mCache.getEntry(ENTRY_KEY));
+    }
 }
@@ -6551,4 +6551,28 @@ public class WifiP2pServiceImplTest extends WifiBaseTest {
         Arrays.sort(permission_gold);
         assertEquals(permission_gold, permission);
     }
+
+    /**
+     * Verify that peers changed broadcasts are only sent when a found device adds or modifies
+     * a peer.
+     */
+    @Test
+    public void testPeersChangedBroadcastOnlyWhenPeerChanges() throws Exception {
+        forceP2pEnabled(mClient1);
+        WifiP2pDevice device = new WifiP2pDevice();
+        device.deviceName = "TestDeviceName";
+        device.deviceAddress = "11:22:33:44:55:66";
+
+        sendDeviceFoundEventMsg(new WifiP2pDevice(device));
+        sendDeviceFoundEventMsg(new WifiP2pDevice(device));
+        verify(mContext, times(1)).sendBroadcastWithMultiplePermissions(
+                argThat(intent -> WifiP2pManager.WIFI_P2P_PEERS_CHANGED_ACTION.equals(
+                        intent.getAction())), any());
+
+        device.deviceName = "RenamedDevice";
+        sendDeviceFoundEventMsg(new WifiP2pDevice(device));
+        verify(mContext, times(2)).sendBroadcastWithMultiplePermissions(
+                argThat(intent -> WifiP2pManager.WIFI_P2P_PEERS_CHANGED_ACTION.equals(
+                        intent.getAction())), any());
+    }
 }
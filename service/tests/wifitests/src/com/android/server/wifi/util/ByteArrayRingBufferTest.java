@@ -194,4 +194,41 @@ public class ByteArrayRingBufferTest extends WifiBaseTest {
         rb.resize(MAX_BYTES * 2);
     }
 
+    /** Verifies that elements keep their FIFO order when the ring wraps around and grows. */
+    @Test
+    public void appendRetainsFifoOrderAcrossWrapAroundAndGrowth() {
+        final int maxBytes = 40;
+        final ByteArrayRingBuffer rb = new ByteArrayRingBuffer(maxBytes);
+        final byte[][] data = new byte[200][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new byte[] {(byte) i};
+        }
+        // Fill the ring past its byte limit, so that the oldest elements are evicted and the
+        // ring wraps around.
+        int numAppended = 0;
+        for (; numAppended < maxBytes * 2; numAppended++) {
+            assertTrue(rb.appendBuffer(data[numAppended]));
+        }
+        assertEquals(maxBytes, rb.getNumBuffers());
+        for (int i = 0; i < maxBytes; i++) {
+            assertSame(data[numAppended - maxBytes + i], rb.getBuffer(i));
+        }
+
+        // Raise the limit and keep appending, so that the wrapped ring has to grow.
+        rb.resize(maxBytes * 4);
+        for (; numAppended < maxBytes * 5; numAppended++) {
+            assertTrue(rb.appendBuffer(data[numAppended]));
+        }
+        assertEquals(maxBytes * 4, rb.getNumBuffers());
+        for (int i = 0; i < maxBytes * 4; i++) {
+            assertSame(data[numAppended - maxBytes * 4 + i], rb.getBuffer(i));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getBufferOutOfRangeThrows() {
+        final ByteArrayRingBuffer rb = new ByteArrayRingBuffer(MAX_BYTES);
+        assertTrue(rb.appendBuffer(new byte[] {0}));
+        rb.getBuffer(1);
+    }
 }
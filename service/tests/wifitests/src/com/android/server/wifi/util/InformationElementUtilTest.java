@@ -1119,6 +1119,30 @@ public class InformationElementUtilTest extends WifiBaseTest {
         assertEquals(0x112233, roamingConsortium.getRoamingConsortiums()[0]);
     }
 
+    /**
+     * Verify that parseInformationElements returns an exactly sized array of the elements,
+     * including extension elements, and stops at trailing padding.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void parseInformationElements_withExtensionElementAndPadding() throws Exception {
+        byte[] heOperationIe = new byte[] { (byte) 0xFF, (byte) 0x03,
+                (byte) InformationElement.EID_EXT_HE_OPERATION, (byte) 0x01, (byte) 0x02 };
+        byte[] padding = new byte[] { (byte) 0x00, (byte) 0x00 };
+        byte[] bytes = concatenateByteArrays(getTestSsidIEBytes(), TEST_BSS_LOAD_BYTES_IE,
+                heOperationIe, padding);
+
+        InformationElement[] ies = InformationElementUtil.parseInformationElements(bytes);
+        assertEquals(3, ies.length);
+        assertEquals(InformationElement.EID_SSID, ies[0].id);
+        assertArrayEquals(TEST_SSID_BYTES, ies[0].bytes);
+        assertEquals(InformationElement.EID_BSS_LOAD, ies[1].id);
+        assertEquals(InformationElement.EID_EXTENSION_PRESENT, ies[2].id);
+        assertEquals(InformationElement.EID_EXT_HE_OPERATION, ies[2].idExt);
+        assertArrayEquals(new byte[] { (byte) 0x01, (byte) 0x02 }, ies[2].bytes);
+    }
+
     /**
      * Verify that the expected Hotspot 2.0 Vendor Specific information element is parsed and
      * retrieved from the list of IEs.
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.server.wifi.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import androidx.test.filters.SmallTest;
+
+import com.android.server.wifi.WifiBaseTest;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Unit tests for {@link com.android.server.wifi.util.TwoStateKalmanFilter}.
+ */
+@SmallTest
+public class TwoStateKalmanFilterTest extends WifiBaseTest {
+    private static final int TRIALS = 100;
+    private static final int STEPS = 200;
+
+    private Random mRandom = new Random(271828);
+
+    private double[] randomValues(int count) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = mRandom.nextGaussian();
+        }
+        return values;
+    }
+
+    private void assertMatrixEquals(Matrix expected, Matrix actual) {
+        for (int i = 0; i < expected.n; i++) {
+            for (int j = 0; j < expected.m; j++) {
+                assertEquals(expected.get(i, j), actual.get(i, j), 0.0);
+            }
+        }
+    }
+
+    /**
+     * Test that the filter gives exactly the same results as the general KalmanFilter for
+     * randomly chosen models and observations.
+     */
+    @Test
+    public void testMatchesKalmanFilter() throws Exception {
+        Matrix x = new Matrix(2, 1);
+        Matrix p = new Matrix(2, 2);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            double[] f = randomValues(4);
+            double[] q = randomValues(4);
+            double[] h = randomValues(2);
+            double[] x0 = randomValues(2);
+            double r = 1.0 + mRandom.nextDouble();
+            double p0 = 10.0 * mRandom.nextDouble();
+
+            KalmanFilter expected = new KalmanFilter();
+            expected.mF = new Matrix(2, f);
+            expected.mQ = new Matrix(2, q);
+            expected.mH = new Matrix(2, h);
+            expected.mR = new Matrix(1, new double[]{r});
+            expected.mP = new Matrix(2, new double[]{p0, 0.0, 0.0, p0});
+            expected.mx = new Matrix(1, x0);
+
+            TwoStateKalmanFilter actual = new TwoStateKalmanFilter();
+            actual.setStateTransition(f[0], f[1], f[2], f[3]);
+            actual.setProcessNoiseCovariance(q[0], q[1], q[2], q[3]);
+            actual.setObservationModel(h[0], h[1]);
+            actual.setObservationNoiseVariance(r);
+            actual.setErrorCovariance(p0, 0.0, 0.0, p0);
+            actual.setState(x0[0], x0[1]);
+
+            for (int step = 0; step < STEPS; step++) {
+                double z = 10.0 * mRandom.nextGaussian();
+                expected.predict();
+                expected.update(new Matrix(1, new double[]{z}));
+                actual.predict();
+                actual.update(z);
+                assertMatrixEquals(expected.mx, actual.getState(x));
+                assertMatrixEquals(expected.mP, actual.getErrorCovariance(p));
+            }
+        }
+    }
+
+    /**
+     * Test that the state can be read back one element at a time.
+     */
+    @Test
+    public void testGetState() throws Exception {
+        TwoStateKalmanFilter kf = new TwoStateKalmanFilter();
+        kf.setState(-60.0, 0.5);
+        assertEquals(-60.0, kf.getState(0), 0.0);
+        assertEquals(0.5, kf.getState(1), 0.0);
+        try {
+            kf.getState(2);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Test that update rejects a zero innovation covariance, like Matrix.inverse() does.
+     */
+    @Test(expected = ArithmeticException.class)
+    public void testUpdateWithSingularInnovationCovariance() throws Exception {
+        TwoStateKalmanFilter kf = new TwoStateKalmanFilter();
+        kf.setObservationModel(1.0, 0.0);
+        kf.update(-60.0);
+    }
+
+    /**
+     * Test that the toString method works.
+     */
+    @Test
+    public void testToString() throws Exception {
+        assertNotNull(new TwoStateKalmanFilter().toString());
+    }
+}